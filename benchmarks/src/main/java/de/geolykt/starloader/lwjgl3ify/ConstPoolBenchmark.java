@@ -0,0 +1,76 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.coley.cafedude.classfile.ConstPool;
+import me.coley.cafedude.io.ClassFileReader;
+
+/**
+ * Measures the constant pool helpers used when rewriting instructions: building the {@link ConstPoolIndex}
+ * and looking up entries that already exist within the pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstPoolBenchmark {
+
+    @Param({"64", "1024", "8192"})
+    public int poolSize;
+
+    private ConstPool pool;
+    private ConstPoolIndex index;
+    private int nameIndex;
+    private int descIndex;
+    private int classIndex;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] bytes = SyntheticJarGenerator.generateClass("synthetic/Benchmark", this.poolSize, 4, true);
+        this.pool = new ClassFileReader().read(bytes).getPool();
+        this.index = new ConstPoolIndex(this.pool);
+        this.nameIndex = this.index.utf8("width");
+        this.descIndex = this.index.utf8("I");
+        this.classIndex = this.index.classRef(this.index.utf8("com/badlogic/gdx/backends/lwjgl/LwjglApplicationConfiguration"));
+    }
+
+    @Benchmark
+    public ConstPoolIndex buildIndex() {
+        return new ConstPoolIndex(this.pool);
+    }
+
+    @Benchmark
+    public int utf8() {
+        return this.index.utf8("padding/Constant0");
+    }
+
+    @Benchmark
+    public int classRef() {
+        return this.index.classRef(this.index.utf8("java/lang/Object"));
+    }
+
+    @Benchmark
+    public int nameType() {
+        return this.index.nameType(this.nameIndex, this.descIndex);
+    }
+
+    @Benchmark
+    public int methodRef() {
+        // Added on the first invocation, looked up on all following ones
+        return this.index.methodRef(this.classIndex, this.index.nameType(this.nameIndex, this.descIndex));
+    }
+}
@@ -0,0 +1,90 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end measurement of {@link LWJGL3Transformer#invoke(Path, Path)} on jars produced by the
+ * {@link SyntheticJarGenerator}. The output of the previous invocation (and the manifest stored next to it) is
+ * removed before every invocation, so that every invocation measures a full transformation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InvokeBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int entries;
+
+    @Param({"0.01", "0.1"})
+    public double lwjglShare;
+
+    @Param({"archive", "streaming", "rawcopy"})
+    public String outputMode;
+
+    @Param({"1", "0"})
+    public int transformThreads;
+
+    private Path directory;
+    private Path source;
+    private Path target;
+
+    @Setup
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("lwjgl3ify-benchmark");
+        this.source = this.directory.resolve("source.jar");
+        this.target = this.directory.resolve("target.jar");
+        SyntheticJarGenerator.generateJar(this.source, this.entries, this.lwjglShare, 0L);
+        System.setProperty("de.geolykt.starloader.lwjgl3ify.outputMode", this.outputMode);
+        System.setProperty("de.geolykt.starloader.lwjgl3ify.transformThreads", Integer.toString(this.transformThreads));
+    }
+
+    @Setup(Level.Invocation)
+    public void removeOutput() throws IOException {
+        // Removes the target along with its sidecar files, otherwise rawcopy mode would reuse the previous output
+        this.deleteAll(false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.deleteAll(true);
+    }
+
+    private void deleteAll(boolean includeSource) throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (includeSource || !file.equals(this.source)) {
+                    Files.delete(file);
+                }
+            }
+        }
+        if (includeSource) {
+            Files.delete(this.directory);
+        }
+    }
+
+    @Benchmark
+    public void invoke() {
+        LWJGL3Transformer.invoke(this.source, this.target);
+    }
+}
@@ -0,0 +1,55 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemapBenchmark {
+
+    @State(Scope.Thread)
+    public static class DescriptorState {
+        @Param({
+            "(Lcom/badlogic/gdx/backends/lwjgl/LwjglApplicationConfiguration;II)V",
+            "(Ljava/util/Map<Ljava/lang/String;Ljava/util/List<Lcom/badlogic/gdx/backends/lwjgl/LwjglApplication;>;>;[ILjava/lang/Object;)Ljava/util/Optional<Lsnoddasmannen/galimulator/Star;>;",
+            "(Ljava/util/function/BiFunction<-Lsnoddasmannen/galimulator/Empire;+Ljava/util/Collection<*>;Ljava/lang/Integer;>;JD[[Ljava/lang/String;)V",
+            "Lcom/badlogic/gdx/backends/lwjgl/LwjglApplicationConfiguration;",
+            "[[Lsnoddasmannen/galimulator/Star;"
+        })
+        public String descriptor;
+
+        /**
+         * A copy of the descriptor that is a distinct instance, like the texts of constant pools of different classes are.
+         */
+        public String copy;
+
+        @Setup
+        public void setup() {
+            this.copy = new String(this.descriptor.toCharArray());
+        }
+    }
+
+    @Benchmark
+    public String remapUncached(DescriptorState state) {
+        return LWJGL3Transformer.REMAPPER.remapUncached(state.descriptor);
+    }
+
+    @Benchmark
+    public String remapCached(DescriptorState state) {
+        return LWJGL3Transformer.REMAPPER.remap(state.copy);
+    }
+}
@@ -0,0 +1,196 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Generates synthetic class files and jars that resemble the game jar closely enough to exercise
+ * the hot paths of the {@link LWJGL3Transformer}.
+ *
+ * <p>Classes that reference LWJGL2 contain static methods taking a {@code LwjglApplicationConfiguration}
+ * which write to its {@code width} field, so both the constant pool remapping and the PUTFIELD rewrite apply.
+ * All other classes only reference {@code java/lang/Object}.
+ */
+public class SyntheticJarGenerator {
+
+    private static final String APPCFG2 = "com/badlogic/gdx/backends/lwjgl/LwjglApplicationConfiguration";
+
+    private static final class ConstantPoolBuilder {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(this.bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        private int entry(String key, int tag, int a, int b, boolean twoOperands) throws IOException {
+            Integer index = this.entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            this.out.writeByte(tag);
+            this.out.writeShort(a);
+            if (twoOperands) {
+                this.out.writeShort(b);
+            }
+            this.entries.put(key, this.count);
+            return this.count++;
+        }
+
+        int utf8(String text) throws IOException {
+            Integer index = this.entries.get("U" + text);
+            if (index != null) {
+                return index;
+            }
+            this.out.writeByte(1);
+            this.out.writeUTF(text);
+            this.entries.put("U" + text, this.count);
+            return this.count++;
+        }
+
+        int classRef(String name) throws IOException {
+            int nameIndex = this.utf8(name);
+            return this.entry("C" + name, 7, nameIndex, 0, false);
+        }
+
+        int nameType(String name, String desc) throws IOException {
+            int nameIndex = this.utf8(name);
+            int descIndex = this.utf8(desc);
+            return this.entry("N" + name + ' ' + desc, 12, nameIndex, descIndex, true);
+        }
+
+        int fieldRef(String owner, String name, String desc) throws IOException {
+            int ownerIndex = this.classRef(owner);
+            int nameTypeIndex = this.nameType(name, desc);
+            return this.entry("F" + owner + ' ' + name + ' ' + desc, 9, ownerIndex, nameTypeIndex, true);
+        }
+    }
+
+    /**
+     * Generates a class file.
+     *
+     * @param name The internal name of the class
+     * @param poolSize The minimum amount of constant pool slots of the class, padded with unused UTF8 entries
+     * @param methods The amount of methods of the class
+     * @param lwjgl2 Whether the class should reference LWJGL2 classes
+     * @return The bytes of the class file
+     */
+    @NotNull
+    public static byte[] generateClass(@NotNull String name, int poolSize, int methods, boolean lwjgl2) {
+        try {
+            ConstantPoolBuilder pool = new ConstantPoolBuilder();
+            int thisClass = pool.classRef(name);
+            int superClass = pool.classRef("java/lang/Object");
+            int codeName = pool.utf8("Code");
+            String methodDesc = lwjgl2 ? "(L" + APPCFG2 + ";)V" : "(Ljava/lang/Object;)V";
+            int methodDescIndex = pool.utf8(methodDesc);
+            int widthField = lwjgl2 ? pool.fieldRef(APPCFG2, "width", "I") : 0;
+            int[] methodNames = new int[methods];
+            for (int i = 0; i < methods; i++) {
+                methodNames[i] = pool.utf8("method" + i);
+            }
+            for (int i = 0; pool.count < poolSize; i++) {
+                pool.utf8("padding/Constant" + i);
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0); // minor version
+            out.writeShort(52); // Java 8
+            out.writeShort(pool.count);
+            pool.out.flush();
+            pool.bytes.writeTo(out);
+            out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(methods);
+            for (int i = 0; i < methods; i++) {
+                out.writeShort(0x0009); // ACC_PUBLIC | ACC_STATIC
+                out.writeShort(methodNames[i]);
+                out.writeShort(methodDescIndex);
+                out.writeShort(1); // attributes
+                byte[] code;
+                if (lwjgl2 && i % 2 == 0) {
+                    // aload_0; sipush i; putfield width; return
+                    code = new byte[] {0x2A, 0x11, (byte) (i >> 8), (byte) i, (byte) 0xB5, (byte) (widthField >> 8), (byte) widthField, (byte) 0xB1};
+                } else {
+                    // aload_0; pop; iconst_0; pop; return
+                    code = new byte[] {0x2A, 0x57, 0x03, 0x57, (byte) 0xB1};
+                }
+                out.writeShort(codeName);
+                out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+                out.writeShort(2); // max stack
+                out.writeShort(1); // max locals
+                out.writeInt(code.length);
+                out.write(code);
+                out.writeShort(0); // exception table
+                out.writeShort(0); // attributes
+            }
+            out.writeShort(0); // class attributes
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates a jar consisting of classes, a few resources and some entries that are removed by the transformer.
+     *
+     * @param target The location of the jar
+     * @param entries The total amount of entries within the jar
+     * @param lwjglShare The share of classes that reference LWJGL2, between 0 and 1
+     * @param seed The seed used to distribute the LWJGL2-referencing classes
+     */
+    public static void generateJar(@NotNull Path target, int entries, double lwjglShare, long seed) {
+        Random random = new Random(seed);
+        byte[] resource = new byte[4096];
+        random.nextBytes(resource);
+        try (OutputStream fileOut = Files.newOutputStream(target);
+                ZipOutputStream out = new ZipOutputStream(fileOut)) {
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.write("Manifest-Version: 1.0\r\n\r\n".getBytes("UTF-8"));
+            out.closeEntry();
+            for (int i = 1; i < entries; i++) {
+                if (i % 50 == 0) {
+                    out.putNextEntry(new ZipEntry("com/badlogic/gdx/backends/lwjgl/Removed" + i + ".class"));
+                    out.write(SyntheticJarGenerator.generateClass("com/badlogic/gdx/backends/lwjgl/Removed" + i, 32, 2, false));
+                } else if (i % 10 == 0) {
+                    out.putNextEntry(new ZipEntry("data/resource" + i + ".bin"));
+                    out.write(resource);
+                } else {
+                    String name = "synthetic/pkg" + (i % 97) + "/Class" + i;
+                    out.putNextEntry(new ZipEntry(name + ".class"));
+                    out.write(SyntheticJarGenerator.generateClass(name, 64 + random.nextInt(512), 1 + random.nextInt(16), random.nextDouble() < lwjglShare));
+                }
+                out.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticJarGenerator <target jar> <entries> [share of LWJGL2 classes] [seed]");
+            return;
+        }
+        double share = args.length > 2 ? Double.parseDouble(args[2]) : 0.01D;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+        SyntheticJarGenerator.generateJar(Paths.get(args[0]), Integer.parseInt(args[1]), share, seed);
+    }
+}
@@ -0,0 +1,65 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.coley.cafedude.classfile.ClassFile;
+import me.coley.cafedude.io.ClassFileReader;
+
+/**
+ * Measures {@link LWJGL3Transformer#transformClass(ClassFile)} on generated classes.
+ * As the transformation mutates the class, every invocation has to parse the class first;
+ * {@link #parseOnly()} measures that share of the cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformClassBenchmark {
+
+    @Param({"64", "1024", "8192"})
+    public int poolSize;
+
+    @Param({"4", "64", "512"})
+    public int methods;
+
+    @Param({"true", "false"})
+    public boolean lwjgl2;
+
+    private byte[] bytes;
+    private TransformStatistics statistics;
+
+    @Setup
+    public void setup() {
+        this.bytes = SyntheticJarGenerator.generateClass("synthetic/Benchmark", this.poolSize, this.methods, this.lwjgl2);
+        this.statistics = new TransformStatistics();
+    }
+
+    @Benchmark
+    public ClassFile parseOnly() throws Exception {
+        return new ClassFileReader().read(this.bytes);
+    }
+
+    @Benchmark
+    public boolean parseAndTransform() throws Exception {
+        return LWJGL3Transformer.transformClass(new ClassFileReader().read(this.bytes));
+    }
+
+    @Benchmark
+    public byte[] transformClassBytes() {
+        return LWJGL3Transformer.transformClassBytes(this.bytes, "synthetic/Benchmark.class", this.statistics);
+    }
+}
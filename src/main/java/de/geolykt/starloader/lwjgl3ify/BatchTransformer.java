@@ -0,0 +1,167 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transforms several jars (for example the game jar alongside mods and libraries) in a single pass.
+ * All jars are transformed concurrently and share the caches of the {@link LWJGL3Transformer}. Each jar is read and
+ * written on a thread of its own, while the classes of all jars are transformed in one shared pool, so that no worker
+ * of the pool ever waits for other tasks of the pool. Every jar is written to its own target, which is reused if it is
+ * still up to date (see {@link TransformCache}).
+ *
+ * <p>The {@code forbid} rules are only applied to jars that are not marked as libraries
+ * (see {@link LWJGL3Transformer#invoke(Path, Path, ForkJoinPool, TransformStatistics, boolean)}).
+ *
+ * <p>The amount of threads is controlled by the {@code de.geolykt.starloader.lwjgl3ify.transformThreads} system property,
+ * which defaults to the amount of available processors for batch transformations.
+ */
+public class BatchTransformer {
+
+    /**
+     * Transforms the given jars.
+     *
+     * @param jobs The jars to transform, mapped to the location their transformed variant is written to
+     * @param libraries The jars within the jobs that are libraries
+     * @param statistics The statistics to record the performed work in
+     * @return The given jars mapped to the jar that should be used in their place, which is the jar itself if it could not be transformed
+     */
+    @NotNull
+    public static Map<Path, Path> transform(@NotNull Map<Path, Path> jobs, @NotNull Set<Path> libraries, @NotNull TransformStatistics statistics) {
+        int threads = Integer.getInteger("de.geolykt.starloader.lwjgl3ify.transformThreads", 0);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService jarExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, jobs.size())), runnable -> {
+            Thread thread = new Thread(runnable, "LWJGL3ify batch transformer #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<Path, Future<Boolean>> tasks = new LinkedHashMap<>();
+            for (Map.Entry<Path, Path> job : jobs.entrySet()) {
+                Path source = job.getKey();
+                Path target = job.getValue();
+                boolean library = libraries.contains(source);
+                tasks.put(source, jarExecutor.submit(() -> TransformCache.invokeCached(source, target, pool, statistics, library)));
+            }
+            Map<Path, Path> results = new LinkedHashMap<>();
+            for (Map.Entry<Path, Future<Boolean>> task : tasks.entrySet()) {
+                Path source = task.getKey();
+                try {
+                    task.getValue().get();
+                    results.put(source, jobs.get(source));
+                } catch (ExecutionException e) {
+                    LoggerFactory.getLogger(BatchTransformer.class).warn("Unable to transform {}, it will be used untransformed.", source, e.getCause());
+                    results.put(source, source);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while transforming " + source, e);
+                }
+            }
+            return results;
+        } finally {
+            jarExecutor.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Assigns each jar a target within the output directory, named after the jar.
+     *
+     * @param sources The jars to transform
+     * @param outputDirectory The directory to write the transformed jars to
+     * @return The jobs to pass to {@link #transform(Map, Set, TransformStatistics)}
+     */
+    @NotNull
+    public static Map<Path, Path> toJobs(@NotNull List<Path> sources, @NotNull Path outputDirectory) {
+        Map<Path, Path> jobs = new LinkedHashMap<>();
+        Map<Path, Path> targets = new LinkedHashMap<>();
+        for (Path source : sources) {
+            Path target = outputDirectory.resolve(source.getFileName().toString());
+            Path previous = targets.put(target, source);
+            if (previous != null) {
+                throw new IllegalArgumentException("The jars " + previous + " and " + source + " would both be transformed to " + target);
+            }
+            if (target.toAbsolutePath().normalize().equals(source.toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("The transform source and transform targets may not match: " + source);
+            }
+            jobs.put(source, target);
+        }
+        return jobs;
+    }
+
+    /**
+     * Lists the jars within a directory.
+     *
+     * @param directory The directory
+     * @return The jars within the directory, sorted by name
+     */
+    @NotNull
+    public static List<Path> listJars(@NotNull Path directory) {
+        List<Path> jars = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".jar")).sorted().forEach(jars::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return jars;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchTransformer <output directory> <game jar> [<library jar or directory of library jars>...]");
+            System.exit(1);
+            return;
+        }
+        Path outputDirectory = Paths.get(args[0]);
+        List<Path> sources = new ArrayList<>();
+        sources.add(Paths.get(args[1]));
+        List<Path> libraries = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            Path path = Paths.get(args[i]);
+            if (Files.isDirectory(path)) {
+                libraries.addAll(BatchTransformer.listJars(path));
+            } else {
+                libraries.add(path);
+            }
+        }
+        sources.addAll(libraries);
+        try {
+            Files.createDirectories(outputDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TransformStatistics statistics = new TransformStatistics();
+        Map<Path, Path> results = BatchTransformer.transform(BatchTransformer.toJobs(sources, outputDirectory), new HashSet<>(libraries), statistics);
+        statistics.report();
+        boolean failed = false;
+        for (Map.Entry<Path, Path> result : results.entrySet()) {
+            failed |= result.getKey().equals(result.getValue());
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+import me.coley.cafedude.classfile.ConstPool;
+import me.coley.cafedude.classfile.constant.ConstPoolEntry;
+import me.coley.cafedude.classfile.constant.CpClass;
+import me.coley.cafedude.classfile.constant.CpDouble;
+import me.coley.cafedude.classfile.constant.CpLong;
+import me.coley.cafedude.classfile.constant.CpMethodRef;
+import me.coley.cafedude.classfile.constant.CpNameType;
+import me.coley.cafedude.classfile.constant.CpUtf8;
+
+/**
+ * Hash-based lookup of constant pool entries by their contents, replacing linear scans of the pool.
+ * The index is built once per class and must be informed of every change made to the pool
+ * (which is done automatically if entries are added through the index).
+ *
+ * <p>Constant pool indices are computed according to the JVMS: the first entry has the index 1 and
+ * long as well as double entries occupy two slots.
+ */
+final class ConstPoolIndex {
+
+    private final ConstPool pool;
+    private final Map<String, Integer> utf8 = new HashMap<>();
+    private final Map<Integer, Integer> classes = new HashMap<>();
+    private final Map<Long, Integer> nameTypes = new HashMap<>();
+    private final Map<Long, Integer> methodRefs = new HashMap<>();
+    private int nextIndex = 1;
+
+    ConstPoolIndex(@NotNull ConstPool pool) {
+        this.pool = pool;
+        for (ConstPoolEntry entry : pool) {
+            this.register(entry);
+        }
+    }
+
+    static int width(@NotNull ConstPoolEntry entry) {
+        return (entry instanceof CpLong || entry instanceof CpDouble) ? 2 : 1;
+    }
+
+    private static long pair(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    private int register(@NotNull ConstPoolEntry entry) {
+        int index = this.nextIndex;
+        if (entry instanceof CpUtf8) {
+            this.utf8.putIfAbsent(((CpUtf8) entry).getText(), index);
+        } else if (entry instanceof CpClass) {
+            this.classes.putIfAbsent(((CpClass) entry).getIndex(), index);
+        } else if (entry instanceof CpNameType) {
+            CpNameType nameType = (CpNameType) entry;
+            this.nameTypes.putIfAbsent(ConstPoolIndex.pair(nameType.getNameIndex(), nameType.getTypeIndex()), index);
+        } else if (entry instanceof CpMethodRef) {
+            CpMethodRef ref = (CpMethodRef) entry;
+            this.methodRefs.putIfAbsent(ConstPoolIndex.pair(ref.getClassIndex(), ref.getNameTypeIndex()), index);
+        }
+        this.nextIndex += ConstPoolIndex.width(entry);
+        return index;
+    }
+
+    private int add(@NotNull ConstPoolEntry entry) {
+        this.pool.add(entry);
+        return this.register(entry);
+    }
+
+    /**
+     * Changes the text of an UTF8 entry that is already present in the pool.
+     *
+     * @param index The constant pool index of the entry
+     * @param entry The entry itself
+     * @param text The new text of the entry
+     */
+    void setText(int index, @NotNull CpUtf8 entry, @NotNull String text) {
+        this.utf8.remove(entry.getText(), index);
+        entry.setText(text);
+        this.utf8.putIfAbsent(text, index);
+    }
+
+    int utf8(@NotNull String text) {
+        Integer index = this.utf8.get(text);
+        if (index != null) {
+            return index;
+        }
+        return this.add(new CpUtf8(text));
+    }
+
+    int classRef(int nameIndex) {
+        Integer index = this.classes.get(nameIndex);
+        if (index != null) {
+            return index;
+        }
+        return this.add(new CpClass(nameIndex));
+    }
+
+    int nameType(int nameIndex, int typeIndex) {
+        Integer index = this.nameTypes.get(ConstPoolIndex.pair(nameIndex, typeIndex));
+        if (index != null) {
+            return index;
+        }
+        return this.add(new CpNameType(nameIndex, typeIndex));
+    }
+
+    int methodRef(int classIndex, int nameTypeIndex) {
+        Integer index = this.methodRefs.get(ConstPoolIndex.pair(classIndex, nameTypeIndex));
+        if (index != null) {
+            return index;
+        }
+        return this.add(new CpMethodRef(classIndex, nameTypeIndex));
+    }
+}
@@ -0,0 +1,108 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lightweight scanner that walks the constant pool of a raw class file without parsing anything else.
+ * It is used to decide whether a class needs to go through the comparatively expensive
+ * {@link LWJGL3Transformer} at all.
+ *
+ * <p>The scanner is conservative: if it encounters anything it does not understand, it reports a match
+ * so that the class is handed to the full transformer which will then deal with it accordingly.
+ */
+public class ConstantPoolScanner {
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    /**
+     * Checks whether any UTF8 constant of the class contains any pattern of the given matcher.
+     * As all relevant patterns are internal class names, the modified UTF-8 encoding used by class files
+     * can be compared byte-by-byte.
+     *
+     * @param bytes The raw class file
+     * @param matcher The matcher of the strings to search for
+     * @return True if any pattern was found or if the class file could not be scanned
+     */
+    public static boolean referencesAny(byte[] bytes, @NotNull SubstringMatcher matcher) {
+        if (bytes.length < 10 || readInt(bytes, 0) != 0xCAFEBABE) {
+            return true;
+        }
+        int count = readUnsignedShort(bytes, 8);
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            if (offset >= bytes.length) {
+                return true;
+            }
+            int tag = bytes[offset++];
+            switch (tag) {
+            case CONSTANT_UTF8:
+                if (offset + 2 > bytes.length) {
+                    return true;
+                }
+                int length = readUnsignedShort(bytes, offset);
+                offset += 2;
+                if (offset + length > bytes.length) {
+                    return true;
+                }
+                if (matcher.containsAny(bytes, offset, offset + length)) {
+                    return true;
+                }
+                offset += length;
+                break;
+            case CONSTANT_LONG:
+            case CONSTANT_DOUBLE:
+                offset += 8;
+                i++; // Occupies two slots
+                break;
+            case CONSTANT_INTEGER:
+            case CONSTANT_FLOAT:
+            case CONSTANT_FIELDREF:
+            case CONSTANT_METHODREF:
+            case CONSTANT_INTERFACE_METHODREF:
+            case CONSTANT_NAME_AND_TYPE:
+            case CONSTANT_DYNAMIC:
+            case CONSTANT_INVOKE_DYNAMIC:
+                offset += 4;
+                break;
+            case CONSTANT_METHOD_HANDLE:
+                offset += 3;
+                break;
+            case CONSTANT_CLASS:
+            case CONSTANT_STRING:
+            case CONSTANT_METHOD_TYPE:
+            case CONSTANT_MODULE:
+            case CONSTANT_PACKAGE:
+                offset += 2;
+                break;
+            default:
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,221 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Renames the classes referenced by field descriptors, method descriptors and generic signatures
+ * (class, method and field signatures alike) according to a fixed set of class mappings.
+ *
+ * <p>The input is parsed iteratively in a single pass. Class names are looked up in an open addressing
+ * table directly from the input via their hash, so no substrings are created; the only allocation happens
+ * when a mapping actually applies. Strings that are not valid descriptors or signatures are returned unchanged.
+ *
+ * <p>As the same descriptors appear in thousands of classes, results are additionally memoised in a cache
+ * that is shared by all threads. Once the cache holds {@code cacheLimit} entries no further entries are added,
+ * which keeps its memory bounded while the descriptors seen first (which tend to be the most common ones)
+ * remain cached.
+ */
+final class DescriptorRemapper {
+
+    /**
+     * Cache value of descriptors that are not changed by the remapper.
+     */
+    @SuppressWarnings("all")
+    private static final String UNCHANGED = new String();
+
+    private final String[] keys;
+    private final String[] values;
+    private final int[] hashes;
+    private final int mask;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+    private final int cacheLimit;
+
+    DescriptorRemapper(@NotNull Map<String, String> mappings, int cacheLimit) {
+        int capacity = Integer.highestOneBit(Math.max(mappings.size(), 1) * 4 - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        this.cacheLimit = cacheLimit;
+        for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+            String key = mapping.getKey();
+            int hash = DescriptorRemapper.hash(key, 0, key.length());
+            int slot = hash & this.mask;
+            while (this.keys[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = key;
+            this.values[slot] = mapping.getValue();
+            this.hashes[slot] = hash;
+        }
+    }
+
+    private static int hash(@NotNull String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Obtains the new name of the class whose internal name is the given region of the text.
+     *
+     * @param text The text containing the internal name
+     * @param start The start of the internal name, inclusive
+     * @param end The end of the internal name, exclusive
+     * @return The new internal name, or null if the class is not renamed
+     */
+    private String lookup(@NotNull String text, int start, int end) {
+        int length = end - start;
+        int hash = DescriptorRemapper.hash(text, start, end);
+        for (int slot = hash & this.mask; this.keys[slot] != null; slot = (slot + 1) & this.mask) {
+            String key = this.keys[slot];
+            if (this.hashes[slot] == hash && key.length() == length && key.regionMatches(0, text, start, length)) {
+                return this.values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remaps a descriptor or signature.
+     *
+     * @param descriptor The descriptor or signature to remap
+     * @return The remapped descriptor, or the very same instance if nothing was remapped
+     */
+    @NotNull
+    String remap(@NotNull String descriptor) {
+        String cached = this.cache.get(descriptor);
+        if (cached != null) {
+            return cached == UNCHANGED ? descriptor : cached;
+        }
+        String result = this.remapUncached(descriptor);
+        if (this.cache.size() < this.cacheLimit) {
+            this.cache.putIfAbsent(descriptor, result == descriptor ? UNCHANGED : result);
+        }
+        return result;
+    }
+
+    @NotNull
+    String remapUncached(@NotNull String descriptor) {
+        int length = descriptor.length();
+        StringBuilder out = null;
+        int copied = 0;
+        int depth = 0; // Nesting level of type arguments
+        boolean formals = false; // Whether we are within the formal type parameters of a class or method signature
+        boolean expectName = false; // Whether the name of a formal type parameter may follow
+        int i = 0;
+        while (i < length) {
+            char c = descriptor.charAt(i);
+            if (expectName) {
+                expectName = false;
+                if (c == '>') {
+                    formals = false;
+                    i++;
+                    continue;
+                } else if (c != ':') {
+                    // Name of the formal type parameter, which is followed by its class bound
+                    int colon = descriptor.indexOf(':', i);
+                    if (colon == -1) {
+                        return descriptor;
+                    }
+                    i = colon;
+                    continue;
+                }
+            }
+            switch (c) {
+            case 'L': {
+                int end = i + 1;
+                while (end < length) {
+                    char e = descriptor.charAt(end);
+                    if (e == ';' || e == '<') {
+                        break;
+                    }
+                    end++;
+                }
+                if (end == length) {
+                    return descriptor;
+                }
+                String mapping = this.lookup(descriptor, i + 1, end);
+                if (mapping != null) {
+                    if (out == null) {
+                        out = new StringBuilder(length + 16);
+                    }
+                    out.append(descriptor, copied, i + 1).append(mapping);
+                    copied = end;
+                }
+                i = end;
+                break;
+            }
+            case 'T':
+            case '.': {
+                // Type variables and the simple names of inner classes are not remapped
+                int end = i + 1;
+                while (end < length) {
+                    char e = descriptor.charAt(end);
+                    if (e == ';' || (c == '.' && e == '<')) {
+                        break;
+                    }
+                    end++;
+                }
+                if (end == length) {
+                    return descriptor;
+                }
+                i = end;
+                break;
+            }
+            case ';':
+                if (formals && depth == 0) {
+                    expectName = true;
+                }
+                i++;
+                break;
+            case '<':
+                if (i == 0) {
+                    formals = true;
+                    expectName = true;
+                } else {
+                    depth++;
+                }
+                i++;
+                break;
+            case '>':
+                if (--depth < 0) {
+                    return descriptor;
+                }
+                i++;
+                break;
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 'V':
+            case '[':
+            case '(':
+            case ')':
+            case '*':
+            case '+':
+            case '-':
+            case '^':
+            case ':':
+                i++;
+                break;
+            default:
+                // Not a descriptor or signature
+                return descriptor;
+            }
+        }
+        if (out == null || depth != 0 || formals) {
+            return descriptor;
+        }
+        return out.append(descriptor, copied, length).toString();
+    }
+}
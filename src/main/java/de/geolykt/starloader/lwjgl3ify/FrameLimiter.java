@@ -0,0 +1,64 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+/**
+ * Paces frames to a fixed rate. The remaining time of a frame is mostly slept away in 1 ms steps, only the last
+ * stretch (the expected duration of a single sleep, which is tracked at runtime as it greatly varies between
+ * operating systems) is spent yielding the thread so that the deadline is met precisely without burning a core.
+ *
+ * <p>If a frame takes longer than the frame time the limiter does not try to catch up by
+ * shortening the following frames. Instances are not thread-safe and are meant to be used by the render thread only.
+ */
+public final class FrameLimiter {
+
+    private static final long MIN_SLEEP_ESTIMATE = 500_000L;
+    private static final long MAX_SLEEP_ESTIMATE = 20_000_000L;
+
+    private final long frameNanos;
+    private long nextFrame;
+    private boolean started;
+
+    /**
+     * Running average of the real duration of {@code Thread.sleep(1)}, in nanoseconds.
+     */
+    private long sleepEstimate = 1_000_000L;
+
+    public FrameLimiter(int fps) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("The target frame rate must be positive, but is " + fps);
+        }
+        this.frameNanos = 1_000_000_000L / fps;
+    }
+
+    /**
+     * Blocks until the next frame is due. Must be called once per frame.
+     */
+    public void sync() {
+        long now = System.nanoTime();
+        if (!this.started) {
+            this.started = true;
+            this.nextFrame = now + this.frameNanos;
+            return;
+        }
+        long deadline = this.nextFrame;
+        try {
+            while (deadline - now > this.sleepEstimate) {
+                Thread.sleep(1);
+                long after = System.nanoTime();
+                long estimate = this.sleepEstimate + ((after - now) - this.sleepEstimate) / 8;
+                this.sleepEstimate = Math.max(MIN_SLEEP_ESTIMATE, Math.min(MAX_SLEEP_ESTIMATE, estimate));
+                now = after;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (deadline - now > 0 && !Thread.currentThread().isInterrupted()) {
+            Thread.yield();
+            now = System.nanoTime();
+        }
+        this.nextFrame = deadline + this.frameNanos;
+        if (this.nextFrame - now < 0) {
+            // We fell behind, do not try to catch up
+            this.nextFrame = now + this.frameNanos;
+        }
+    }
+}
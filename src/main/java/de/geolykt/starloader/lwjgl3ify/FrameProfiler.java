@@ -0,0 +1,250 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+/**
+ * Collects per-frame rendering statistics: the frame time, the time spent in the render method of the game
+ * and the amount of GL calls, draw calls, texture bindings, shader switches and vertices drawn. The GL related
+ * counters are taken from libGDX's {@link GLProfiler} (see {@link #attach(GLProfiler)}), which is reset after every frame.
+ * Frames are delimited through {@link #beginFrame()} and {@link #endFrame()}.
+ *
+ * <p>The statistics of the most recent frames are kept in a ring buffer of fixed capacity, so recording a frame
+ * does not allocate. If a JFR recording with the {@link GLFrameEvent} enabled is active, every frame is additionally
+ * emitted as a JFR event. Frames must only be recorded by the render thread, the recorded frames may be
+ * read from any thread.
+ */
+public final class FrameProfiler {
+
+    /**
+     * The statistics of a single frame.
+     */
+    public static final class Frame {
+        private final long frameTime;
+        private final long renderTime;
+        private final long calls;
+        private final long drawCalls;
+        private final long textureBindings;
+        private final long shaderSwitches;
+        private final long vertices;
+
+        private Frame(long frameTime, long renderTime, long calls, long drawCalls, long textureBindings, long shaderSwitches, long vertices) {
+            this.frameTime = frameTime;
+            this.renderTime = renderTime;
+            this.calls = calls;
+            this.drawCalls = drawCalls;
+            this.textureBindings = textureBindings;
+            this.shaderSwitches = shaderSwitches;
+            this.vertices = vertices;
+        }
+
+        /**
+         * Obtains the time between the start of the previous frame and the start of this frame.
+         *
+         * @return The frame time in nanoseconds, or 0 for the first frame
+         */
+        public long getFrameTime() {
+            return this.frameTime;
+        }
+
+        /**
+         * Obtains the time spent rendering the frame.
+         *
+         * @return The render time in nanoseconds
+         */
+        public long getRenderTime() {
+            return this.renderTime;
+        }
+
+        public long getCalls() {
+            return this.calls;
+        }
+
+        public long getDrawCalls() {
+            return this.drawCalls;
+        }
+
+        public long getTextureBindings() {
+            return this.textureBindings;
+        }
+
+        public long getShaderSwitches() {
+            return this.shaderSwitches;
+        }
+
+        public long getVertices() {
+            return this.vertices;
+        }
+    }
+
+    private static final int FIELDS = 7;
+
+    private final int capacity;
+    private final long[] ring;
+    private int nextFrame;
+    private long frameCount;
+
+    // Only accessed by the render thread
+    @Nullable
+    private GLProfiler gl;
+    private long frameStart = -1L;
+    private long previousFrameStart = -1L;
+
+    public FrameProfiler(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive, but is " + capacity);
+        }
+        this.capacity = capacity;
+        this.ring = new long[capacity * FIELDS];
+    }
+
+    /**
+     * Sets the GL profiler whose counters are recorded with every frame. The profiler is reset at the start of every frame,
+     * so calls made between frames are attributed to no frame.
+     *
+     * @param gl The enabled GL profiler
+     */
+    public void attach(@NotNull GLProfiler gl) {
+        this.gl = gl;
+    }
+
+    @Nullable
+    public GLProfiler getGLProfiler() {
+        return this.gl;
+    }
+
+    /**
+     * Marks the start of a frame.
+     */
+    public void beginFrame() {
+        GLProfiler gl = this.gl;
+        if (gl != null) {
+            gl.reset();
+        }
+        this.previousFrameStart = this.frameStart;
+        this.frameStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the frame started by the last invocation of {@link #beginFrame()} and records it
+     * with the counters of the attached GL profiler.
+     */
+    public void endFrame() {
+        GLProfiler gl = this.gl;
+        if (gl == null) {
+            this.endFrame(0, 0, 0, 0, 0);
+        } else {
+            this.endFrame(gl.getCalls(), gl.getDrawCalls(), gl.getTextureBindings(), gl.getShaderSwitches(), (long) gl.getVertexCount().total);
+        }
+    }
+
+    /**
+     * Marks the end of the frame started by the last invocation of {@link #beginFrame()} and records it with the given counters.
+     *
+     * @param calls The amount of GL calls
+     * @param drawCalls The amount of draw calls
+     * @param textureBindings The amount of texture bindings
+     * @param shaderSwitches The amount of shader switches
+     * @param vertices The amount of vertices drawn
+     */
+    void endFrame(long calls, long drawCalls, long textureBindings, long shaderSwitches, long vertices) {
+        long frameTime = this.previousFrameStart < 0 ? 0 : this.frameStart - this.previousFrameStart;
+        long renderTime = System.nanoTime() - this.frameStart;
+        synchronized (this) {
+            int offset = this.nextFrame * FIELDS;
+            this.ring[offset] = frameTime;
+            this.ring[offset + 1] = renderTime;
+            this.ring[offset + 2] = calls;
+            this.ring[offset + 3] = drawCalls;
+            this.ring[offset + 4] = textureBindings;
+            this.ring[offset + 5] = shaderSwitches;
+            this.ring[offset + 6] = vertices;
+            this.nextFrame = (this.nextFrame + 1) % this.capacity;
+            this.frameCount++;
+        }
+        if (TransformStatistics.JFR_AVAILABLE) {
+            GLFrameEvent.commit(frameTime, renderTime, calls, drawCalls, textureBindings, shaderSwitches, vertices);
+        }
+    }
+
+    /**
+     * Obtains the average frame time of the frames within the ring buffer. Frames without a frame time (the first frame
+     * recorded by the profiler) are not taken into account.
+     *
+     * @return The average frame time in nanoseconds, or 0 if no frame time is known
+     */
+    public synchronized long getAverageFrameTime() {
+        int size = (int) Math.min(this.frameCount, this.capacity);
+        long total = 0;
+        int timedFrames = 0;
+        for (int i = 0; i < size; i++) {
+            long frameTime = this.ring[i * FIELDS];
+            if (frameTime > 0) {
+                total += frameTime;
+                timedFrames++;
+            }
+        }
+        return timedFrames == 0 ? 0 : total / timedFrames;
+    }
+
+    /**
+     * Obtains the total amount of frames recorded, including frames that were already evicted from the ring buffer.
+     *
+     * @return The amount of recorded frames
+     */
+    public synchronized long getFrameCount() {
+        return this.frameCount;
+    }
+
+    /**
+     * Obtains the frames within the ring buffer.
+     *
+     * @return The recorded frames, oldest first
+     */
+    @NotNull
+    public synchronized List<Frame> getFrames() {
+        int size = (int) Math.min(this.frameCount, this.capacity);
+        List<Frame> frames = new ArrayList<>(size);
+        int index = size < this.capacity ? 0 : this.nextFrame;
+        for (int i = 0; i < size; i++) {
+            int offset = index * FIELDS;
+            frames.add(new Frame(this.ring[offset], this.ring[offset + 1], this.ring[offset + 2], this.ring[offset + 3],
+                    this.ring[offset + 4], this.ring[offset + 5], this.ring[offset + 6]));
+            index = (index + 1) % this.capacity;
+        }
+        return frames;
+    }
+
+    /**
+     * Writes the frames within the ring buffer as CSV, oldest first. Times are written in nanoseconds.
+     *
+     * @param out The output to write to
+     * @throws IOException If writing to the output fails
+     */
+    public void dump(@NotNull Appendable out) throws IOException {
+        out.append("frameTime,renderTime,calls,drawCalls,textureBindings,shaderSwitches,vertices\n");
+        for (Frame frame : this.getFrames()) {
+            out.append(Long.toString(frame.frameTime)).append(',')
+                .append(Long.toString(frame.renderTime)).append(',')
+                .append(Long.toString(frame.calls)).append(',')
+                .append(Long.toString(frame.drawCalls)).append(',')
+                .append(Long.toString(frame.textureBindings)).append(',')
+                .append(Long.toString(frame.shaderSwitches)).append(',')
+                .append(Long.toString(frame.vertices)).append('\n');
+        }
+    }
+
+    /**
+     * Resets the profiler, discarding all recorded frames.
+     */
+    public synchronized void reset() {
+        this.nextFrame = 0;
+        this.frameCount = 0;
+    }
+}
@@ -0,0 +1,63 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted for every frame recorded by a {@link FrameProfiler}.
+ * Must only be referenced if the JVM supports JFR.
+ */
+@Name("de.geolykt.starloader.lwjgl3ify.GLFrame")
+@Label("LWJGL3ify GL Frame")
+@Category("LWJGL3ify")
+@Description("The rendering statistics of a single frame")
+@StackTrace(false)
+final class GLFrameEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(GLFrameEvent.class);
+
+    @Label("Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long frameTime;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderTime;
+
+    @Label("GL Calls")
+    long calls;
+
+    @Label("Draw Calls")
+    long drawCalls;
+
+    @Label("Texture Bindings")
+    long textureBindings;
+
+    @Label("Shader Switches")
+    long shaderSwitches;
+
+    @Label("Vertices")
+    long vertices;
+
+    static void commit(long frameTime, long renderTime, long calls, long drawCalls, long textureBindings, long shaderSwitches, long vertices) {
+        if (!TYPE.isEnabled()) {
+            // Do not allocate events while no recording is interested in them
+            return;
+        }
+        GLFrameEvent event = new GLFrameEvent();
+        event.frameTime = frameTime;
+        event.renderTime = renderTime;
+        event.calls = calls;
+        event.drawCalls = drawCalls;
+        event.textureBindings = textureBindings;
+        event.shaderSwitches = shaderSwitches;
+        event.vertices = vertices;
+        event.commit();
+    }
+}
@@ -5,19 +5,88 @@ import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.LoggerFactory;
 
 import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 
 public class Helper {
 
     private static Map<Lwjgl3ApplicationConfiguration, Integer> width = new WeakHashMap<>();
     private static Map<Lwjgl3ApplicationConfiguration, Integer> height = new WeakHashMap<>();
     private static Map<Lwjgl3ApplicationConfiguration, List<String>> icons = new WeakHashMap<>();
+    private static Map<Lwjgl3ApplicationConfiguration, Integer> foregroundFPS = new WeakHashMap<>();
+    private static Map<Lwjgl3ApplicationConfiguration, Boolean> vsync = new WeakHashMap<>();
     private static InputProcessor inputProcessor;
+    @Nullable
+    private static volatile FrameProfiler frameProfiler;
+
+    /**
+     * The metrics of the input processors of the game, which are recorded by {@link Lwjgl3ifyApplication},
+     * or null if the {@code de.geolykt.starloader.lwjgl3ify.inputMetrics} system property is not set to true.
+     */
+    @Nullable
+    private static final InputMetrics INPUT_METRICS = Helper.createInputMetrics();
+
+    @Nullable
+    private static InputMetrics createInputMetrics() {
+        if (!Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.inputMetrics")) {
+            return null;
+        }
+        InputMetrics metrics = new InputMetrics();
+        if (TransformStatistics.JFR_AVAILABLE) {
+            InputMetricsEvent.register(metrics);
+        }
+        return metrics;
+    }
+
+    @Nullable
+    public static InputMetrics getInputMetrics() {
+        return Helper.INPUT_METRICS;
+    }
+
+    /**
+     * Obtains the profiler installed by {@link Lwjgl3ifyApplication}.
+     *
+     * @return The profiler, or null if the game was not started with the {@code de.geolykt.starloader.lwjgl3ify.glProfiler}
+     * system property set to true
+     */
+    @Nullable
+    public static FrameProfiler getFrameProfiler() {
+        return Helper.frameProfiler;
+    }
+
+    /**
+     * Enables libGDX's {@link GLProfiler} on the graphics and attaches it to the given profiler.
+     * The profiler sets its interceptor on the graphics, so that it survives the window making its context current.
+     * The interceptor is also set on {@link Gdx} so that it is used for the current frame already.
+     *
+     * @param graphics The graphics
+     * @param profiler The profiler
+     */
+    public static void installFrameProfiler(Graphics graphics, FrameProfiler profiler) {
+        GLProfiler gl = new GLProfiler(graphics);
+        gl.enable();
+        GL30 gl30 = graphics.getGL30();
+        if (gl30 != null) {
+            Gdx.gl30 = gl30;
+            Gdx.gl20 = gl30;
+            Gdx.gl = gl30;
+        } else {
+            Gdx.gl20 = graphics.getGL20();
+            Gdx.gl = Gdx.gl20;
+        }
+        profiler.attach(gl);
+        Helper.frameProfiler = profiler;
+        LoggerFactory.getLogger(Helper.class).info("Profiling GL calls and frame times.");
+    }
 
     public static void setWidth(Lwjgl3ApplicationConfiguration cfg, int width) {
         Integer height = Helper.height.remove(cfg);
@@ -37,6 +106,59 @@ public class Helper {
         }
     }
 
+    /**
+     * Replacement for writes to the foregroundFPS field of the LWJGL2 configuration, as libGDX 1.9.11 has no
+     * foreground frame cap for LWJGL3. The render method of the game is paced by a {@link FrameLimiter} within
+     * the {@link Lwjgl3ifyApplication} instead. The cap can be overridden through the
+     * {@code de.geolykt.starloader.lwjgl3ify.foregroundFPS} system property, where 0 disables it.
+     *
+     * @param cfg The configuration
+     * @param fps The maximum frame rate while the window is rendered, 0 for no cap
+     */
+    public static void setForegroundFPS(Lwjgl3ApplicationConfiguration cfg, int fps) {
+        Helper.foregroundFPS.put(cfg, fps);
+    }
+
+    private static int getForegroundFPS(Lwjgl3ApplicationConfiguration cfg) {
+        return Integer.getInteger("de.geolykt.starloader.lwjgl3ify.foregroundFPS", Helper.foregroundFPS.getOrDefault(cfg, 0));
+    }
+
+    static boolean hasForegroundFPS(Lwjgl3ApplicationConfiguration cfg) {
+        return Helper.getForegroundFPS(cfg) > 0;
+    }
+
+    /**
+     * Creates the limiter pacing the frames of the application created from the given configuration.
+     * Must be called after GLFW was initialized.
+     *
+     * @param cfg The configuration
+     * @return The limiter, or null if the frame rate should not be limited
+     */
+    @Nullable
+    static FrameLimiter createFrameLimiter(Lwjgl3ApplicationConfiguration cfg) {
+        int fps = Helper.getForegroundFPS(cfg);
+        if (fps <= 0) {
+            return null;
+        }
+        if (Helper.vsync.getOrDefault(cfg, true) && fps >= Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate) {
+            LoggerFactory.getLogger(Helper.class).info("Not limiting the foreground frame rate to {} FPS as vsync already caps it at the refresh rate of the display.", fps);
+            return null;
+        }
+        LoggerFactory.getLogger(Helper.class).info("Limiting the foreground frame rate to {} FPS.", fps);
+        return new FrameLimiter(fps);
+    }
+
+    /**
+     * Replacement for writes to the vSyncEnabled field of the LWJGL2 configuration.
+     *
+     * @param cfg The configuration
+     * @param enabled Whether vsync should be enabled
+     */
+    public static void setVSyncEnabled(Lwjgl3ApplicationConfiguration cfg, boolean enabled) {
+        Helper.vsync.put(cfg, enabled);
+        cfg.useVsync(enabled);
+    }
+
     public static void addIcon(Lwjgl3ApplicationConfiguration cfg, String path, FileType type) {
         if (type != FileType.Internal) {
             throw new IllegalStateException("Non-internal file types are not supported by the LWJGL helper!");
@@ -55,9 +177,22 @@ public class Helper {
         Helper.inputProcessor = processor;
     }
 
-    public static void getInputProcessor(Input input) {
-        if (input.getInputProcessor() != Helper.inputProcessor) {
+    /**
+     * Obtains the input processor of the input. The {@link InstrumentedInputProcessor} that {@link Lwjgl3ifyApplication}
+     * installs between the callbacks of the game if input metrics are enabled is never exposed, instead the processor
+     * it decorates is returned, so that callers may cast the processor to their own type.
+     *
+     * @param input The input
+     * @return The input processor, may be null
+     */
+    public static InputProcessor getInputProcessor(Input input) {
+        InputProcessor processor = input.getInputProcessor();
+        if (processor instanceof InstrumentedInputProcessor) {
+            processor = ((InstrumentedInputProcessor) processor).getDelegate();
+        }
+        if (processor != Helper.inputProcessor) {
             LoggerFactory.getLogger(Helper.class).info("The LWJGL3ify Helper class disagrees with libGDX about the state of the input processor.");
         }
+        return processor;
     }
 }
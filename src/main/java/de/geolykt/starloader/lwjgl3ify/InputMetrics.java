@@ -0,0 +1,161 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Counters and histograms describing the input events passed through an {@link InstrumentedInputProcessor}.
+ * For every type of event the amount of events, the amount of events reported as handled, the time spent
+ * in the handler of the game and the time events waited in the input queue of libGDX are recorded.
+ *
+ * <p>Durations are recorded into logarithmic histograms: bucket {@code i} counts the durations
+ * of {@code 2^i} to {@code 2^(i + 1) - 1} nanoseconds, bucket 0 additionally counts durations of 0.
+ * Recording never allocates. Instances are thread-safe.
+ */
+public final class InputMetrics {
+
+    public enum EventType {
+        KEY_DOWN,
+        KEY_UP,
+        KEY_TYPED,
+        TOUCH_DOWN,
+        TOUCH_UP,
+        TOUCH_DRAGGED,
+        MOUSE_MOVED,
+        SCROLLED;
+    }
+
+    public static final int BUCKETS = 64;
+
+    private static final int TYPES = EventType.values().length;
+
+    private final AtomicLongArray counts = new AtomicLongArray(TYPES);
+    private final AtomicLongArray handled = new AtomicLongArray(TYPES);
+    private final AtomicLongArray handlerNanos = new AtomicLongArray(TYPES);
+    private final AtomicLongArray queueDelayNanos = new AtomicLongArray(TYPES);
+    private final AtomicLongArray queueDelayCounts = new AtomicLongArray(TYPES);
+    private final AtomicLongArray handlerHistogram = new AtomicLongArray(TYPES * BUCKETS);
+    private final AtomicLongArray queueDelayHistogram = new AtomicLongArray(TYPES * BUCKETS);
+
+    static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Records a single event.
+     *
+     * @param type The type of the event
+     * @param queueDelay The time the event waited before it was processed in nanoseconds, or a negative value if unknown
+     * @param handlerTime The time spent in the handler in nanoseconds
+     * @param wasHandled Whether the handler reported the event as handled
+     */
+    void record(@NotNull EventType type, long queueDelay, long handlerTime, boolean wasHandled) {
+        int ordinal = type.ordinal();
+        this.counts.incrementAndGet(ordinal);
+        if (wasHandled) {
+            this.handled.incrementAndGet(ordinal);
+        }
+        this.handlerNanos.addAndGet(ordinal, handlerTime);
+        this.handlerHistogram.incrementAndGet(ordinal * BUCKETS + InputMetrics.bucket(handlerTime));
+        if (queueDelay >= 0) {
+            this.queueDelayNanos.addAndGet(ordinal, queueDelay);
+            this.queueDelayCounts.incrementAndGet(ordinal);
+            this.queueDelayHistogram.incrementAndGet(ordinal * BUCKETS + InputMetrics.bucket(queueDelay));
+        }
+    }
+
+    public long getCount(@NotNull EventType type) {
+        return this.counts.get(type.ordinal());
+    }
+
+    public long getHandledCount(@NotNull EventType type) {
+        return this.handled.get(type.ordinal());
+    }
+
+    /**
+     * Obtains the total time spent in the handlers of events of the given type.
+     *
+     * @param type The type of event
+     * @return The total time in nanoseconds
+     */
+    public long getHandlerNanos(@NotNull EventType type) {
+        return this.handlerNanos.get(type.ordinal());
+    }
+
+    /**
+     * Obtains the total time events of the given type waited before they were processed.
+     * Only events with a known queue delay are accounted for, see {@link #getQueueDelayCount(EventType)}.
+     *
+     * @param type The type of event
+     * @return The total time in nanoseconds
+     */
+    public long getQueueDelayNanos(@NotNull EventType type) {
+        return this.queueDelayNanos.get(type.ordinal());
+    }
+
+    public long getQueueDelayCount(@NotNull EventType type) {
+        return this.queueDelayCounts.get(type.ordinal());
+    }
+
+    @NotNull
+    public long[] getHandlerHistogram(@NotNull EventType type) {
+        return InputMetrics.copy(this.handlerHistogram, type);
+    }
+
+    @NotNull
+    public long[] getQueueDelayHistogram(@NotNull EventType type) {
+        return InputMetrics.copy(this.queueDelayHistogram, type);
+    }
+
+    @NotNull
+    private static long[] copy(@NotNull AtomicLongArray histogram, @NotNull EventType type) {
+        long[] copy = new long[BUCKETS];
+        int offset = type.ordinal() * BUCKETS;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = histogram.get(offset + i);
+        }
+        return copy;
+    }
+
+    /**
+     * Estimates a percentile of a histogram obtained through {@link #getHandlerHistogram(EventType)}
+     * or {@link #getQueueDelayHistogram(EventType)}.
+     *
+     * @param histogram The histogram
+     * @param percentile The percentile, between 0 and 1
+     * @return The upper bound of the bucket the percentile falls into in nanoseconds, or 0 if the histogram is empty
+     */
+    public static long percentile(@NotNull long[] histogram, double percentile) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reset() {
+        for (int i = 0; i < TYPES; i++) {
+            this.counts.set(i, 0);
+            this.handled.set(i, 0);
+            this.handlerNanos.set(i, 0);
+            this.queueDelayNanos.set(i, 0);
+            this.queueDelayCounts.set(i, 0);
+        }
+        for (int i = 0; i < TYPES * BUCKETS; i++) {
+            this.handlerHistogram.set(i, 0);
+            this.queueDelayHistogram.set(i, 0);
+        }
+    }
+}
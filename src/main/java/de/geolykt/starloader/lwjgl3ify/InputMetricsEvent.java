@@ -0,0 +1,70 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import org.jetbrains.annotations.NotNull;
+
+import de.geolykt.starloader.lwjgl3ify.InputMetrics.EventType;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Periodic JFR event exposing the cumulative {@link InputMetrics} of a single type of input event.
+ * Must only be referenced if the JVM supports JFR.
+ */
+@Name("de.geolykt.starloader.lwjgl3ify.InputMetrics")
+@Label("LWJGL3ify Input Metrics")
+@Category("LWJGL3ify")
+@Period("1 s")
+@StackTrace(false)
+final class InputMetricsEvent extends Event {
+
+    @Label("Event Type")
+    String eventType;
+
+    @Label("Events")
+    long count;
+
+    @Label("Handled Events")
+    long handled;
+
+    @Label("Total Handler Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long handlerTime;
+
+    @Label("Handler Time (99th Percentile)")
+    @Timespan(Timespan.NANOSECONDS)
+    long handlerTimeP99;
+
+    @Label("Total Queue Delay")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueDelay;
+
+    @Label("Queue Delay (99th Percentile)")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueDelayP99;
+
+    static void register(@NotNull InputMetrics metrics) {
+        FlightRecorder.addPeriodicEvent(InputMetricsEvent.class, () -> {
+            for (EventType type : EventType.values()) {
+                if (metrics.getCount(type) == 0) {
+                    continue;
+                }
+                InputMetricsEvent event = new InputMetricsEvent();
+                event.eventType = type.name();
+                event.count = metrics.getCount(type);
+                event.handled = metrics.getHandledCount(type);
+                event.handlerTime = metrics.getHandlerNanos(type);
+                event.handlerTimeP99 = InputMetrics.percentile(metrics.getHandlerHistogram(type), 0.99D);
+                event.queueDelay = metrics.getQueueDelayNanos(type);
+                event.queueDelayP99 = InputMetrics.percentile(metrics.getQueueDelayHistogram(type), 0.99D);
+                event.commit();
+            }
+        });
+    }
+}
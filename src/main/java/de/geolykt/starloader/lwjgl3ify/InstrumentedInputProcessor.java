@@ -0,0 +1,111 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+
+import de.geolykt.starloader.lwjgl3ify.InputMetrics.EventType;
+
+/**
+ * Decorates an {@link InputProcessor} in order to record the events passed to it in {@link InputMetrics}.
+ * The queue delay of an event is the time between the backend queueing the event (as reported by
+ * {@link Input#getCurrentEventTime()}) and the event being passed to the decorated processor.
+ */
+public final class InstrumentedInputProcessor implements InputProcessor {
+
+    @NotNull
+    private final InputProcessor delegate;
+    @NotNull
+    private final Input input;
+    @NotNull
+    private final InputMetrics metrics;
+
+    public InstrumentedInputProcessor(@NotNull InputProcessor delegate, @NotNull Input input, @NotNull InputMetrics metrics) {
+        this.delegate = delegate;
+        this.input = input;
+        this.metrics = metrics;
+    }
+
+    @NotNull
+    public InputProcessor getDelegate() {
+        return this.delegate;
+    }
+
+    @NotNull
+    Input getInput() {
+        return this.input;
+    }
+
+    private long queueDelay(long start) {
+        long queued = this.input.getCurrentEventTime();
+        if (queued <= 0 || start - queued < 0) {
+            return -1;
+        }
+        return start - queued;
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.keyDown(keycode);
+        this.metrics.record(EventType.KEY_DOWN, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.keyUp(keycode);
+        this.metrics.record(EventType.KEY_UP, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean keyTyped(char character) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.keyTyped(character);
+        this.metrics.record(EventType.KEY_TYPED, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.touchDown(screenX, screenY, pointer, button);
+        this.metrics.record(EventType.TOUCH_DOWN, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.touchUp(screenX, screenY, pointer, button);
+        this.metrics.record(EventType.TOUCH_UP, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.touchDragged(screenX, screenY, pointer);
+        this.metrics.record(EventType.TOUCH_DRAGGED, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean mouseMoved(int screenX, int screenY) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.mouseMoved(screenX, screenY);
+        this.metrics.record(EventType.MOUSE_MOVED, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+
+    @Override
+    public boolean scrolled(int amount) {
+        long start = System.nanoTime();
+        boolean handled = this.delegate.scrolled(amount);
+        this.metrics.record(EventType.SCROLLED, this.queueDelay(start), System.nanoTime() - start, handled);
+        return handled;
+    }
+}
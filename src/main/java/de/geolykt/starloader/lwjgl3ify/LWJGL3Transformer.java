@@ -2,12 +2,14 @@ package de.geolykt.starloader.lwjgl3ify;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -49,66 +51,138 @@ public class LWJGL3Transformer {
     private static final String HELPER3 = "de/geolykt/starloader/lwjgl3ify/Helper";
     private static final String APPCFG3 = "com/badlogic/gdx/backends/lwjgl3/Lwjgl3ApplicationConfiguration";
 
-    private static final List<String> FORBID_LIST = Arrays.asList("META-INF/maven/com.badlogicgames.gdx/gdx-backend-lwjgl/",
-            "com/badlogic/gdx/backends/lwjgl/",
-            "org/lwjgl/",
-            "OpenAL32.dll",
-            "OpenAL64.dll",
-            "lwjgl.dll",
-            "lwjgl64.dll",
-            "liblwjgl.so",
-            "liblwjgl64.so",
-            "libopenal.so",
-            "libopenal64.so",
-            "liblwjgl.dylib",
-            "openal.dylib");
+    private static final RuleSet RULES = RuleSet.load();
+    private static final Map<String, String> DIRECT_MAPPINGS = RULES.getMappings();
 
-    private static final Map<String, String> DIRECT_MAPPINGS = new HashMap<>();
+    /**
+     * Remaps descriptors and signatures, shared by all classes of a run.
+     */
+    static final DescriptorRemapper REMAPPER = new DescriptorRemapper(DIRECT_MAPPINGS, 16384);
+
+    /**
+     * Matches the internal names of all classes whose references cause a class to be transformed,
+     * used by the {@link ConstantPoolScanner} prefilter.
+     */
+    private static final SubstringMatcher SCAN_TARGETS;
+
+    /**
+     * Revision of the hard-coded bytecode rewrites performed by {@link #transformClass(ClassFile)}
+     * (PUTFIELD and INVOKEVIRTUAL redirections). Must be incremented whenever their output changes
+     * as otherwise stale transformation results would be reused by the {@link TransformCache}.
+     */
+    private static final int REWRITE_REVISION = 5;
 
     public static void invoke(@NotNull Path source, @NotNull Path target) {
-        ZipArchive archive;
+        TransformStatistics statistics = new TransformStatistics();
+        LWJGL3Transformer.invoke(source, target, statistics);
+        statistics.report();
+    }
+
+    public static void invoke(@NotNull Path source, @NotNull Path target, @NotNull TransformStatistics statistics) {
+        int threads = Integer.getInteger("de.geolykt.starloader.lwjgl3ify.transformThreads", 1);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        if (threads == 1) {
+            LWJGL3Transformer.invoke(source, target, null, statistics);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
         try {
+            LWJGL3Transformer.invoke(source, target, pool, statistics);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Transforms the source jar and writes the result to the target jar.
+     * If a pool is given, the decompression and transformation of the individual classes is performed
+     * concurrently in that pool. The results are applied in the order of the entries within the
+     * archive, so the output is identical to the output of the sequential mode.
+     *
+     * @param source The jar to transform
+     * @param target The location of the transformed jar
+     * @param pool The pool to transform the classes in, or null to transform them on the current thread
+     * @param statistics The statistics to record the performed work in
+     */
+    public static void invoke(@NotNull Path source, @NotNull Path target, @Nullable ForkJoinPool pool, @NotNull TransformStatistics statistics) {
+        LWJGL3Transformer.invoke(source, target, pool, statistics, false);
+    }
+
+    /**
+     * Variant of {@link #invoke(Path, Path, ForkJoinPool, TransformStatistics)} that may be used for library jars.
+     * The {@code forbid} rules are meant to strip the LWJGL2 backend that is bundled with the game jar, so they are not
+     * applied to libraries. The classes of libraries are remapped like the classes of the game.
+     *
+     * @param source The jar to transform
+     * @param target The location of the transformed jar
+     * @param pool The pool to transform the classes in, or null to transform them on the current thread
+     * @param statistics The statistics to record the performed work in
+     * @param library Whether the jar is a library, in which case no entries are removed
+     */
+    public static void invoke(@NotNull Path source, @NotNull Path target, @Nullable ForkJoinPool pool, @NotNull TransformStatistics statistics, boolean library) {
+        String mode = LWJGL3Transformer.getOutputMode();
+        if (mode.equals("streaming")) {
+            StreamingTransformer.transform(source, target, statistics, library);
+            return;
+        } else if (mode.equals("rawcopy")) {
+            RawCopyTransformer.transform(source, target, pool, statistics, library);
+            return;
+        } else if (!mode.equals("archive")) {
+            throw new IllegalStateException("Unknown output mode: \"" + mode + "\"");
+        }
+        if (!OutputLayout.get().isDefault()) {
+            LoggerFactory.getLogger(LWJGL3Transformer.class).warn("The output compression and startup class order are only honoured by the streaming and rawcopy output modes.");
+        }
+
+        ZipArchive archive;
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.READ_ARCHIVE, source.toString())) {
             archive = ZipIO.readJvm(source);
+            statistics.bytesRead(Files.size(source));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
 
-        Iterator<ZipPart> parts = archive.getParts().iterator();
-        while (parts.hasNext()) {
-            ZipPart part = parts.next();
-            if (part.type() != PartType.LOCAL_FILE_HEADER) {
-                continue;
-            }
-            LocalFileHeader header = (LocalFileHeader) part;
-            String name = header.getFileNameAsString();
-            for (String list : FORBID_LIST) {
-                if (name.contains(list)) {
+        List<LocalFileHeader> transformable = new ArrayList<>();
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.FILTER)) {
+            Iterator<ZipPart> parts = archive.getParts().iterator();
+            while (parts.hasNext()) {
+                ZipPart part = parts.next();
+                if (part.type() != PartType.LOCAL_FILE_HEADER) {
+                    continue;
+                }
+                LocalFileHeader header = (LocalFileHeader) part;
+                String name = header.getFileNameAsString();
+                statistics.entryScanned();
+                if (!library && LWJGL3Transformer.isForbidden(name)) {
                     parts.remove();
+                    statistics.entryRemoved();
+                } else if (LWJGL3Transformer.isTransformTarget(name)) {
+                    transformable.add(header);
                 }
             }
+        }
 
-            if (name.contains("com/example/Main")
-                    || name.equals("snoddasmannen/galimulator/")) {
-                 try {
-                    ByteData data = ZipCompressions.decompress(header);
-                    data = LWJGL3Transformer.transformClassBytes(data);
-                    if (data != null) {
-                        header.setFileData(data);
-                        header.setCompressionMethod(ZipCompressions.STORED);
-                        // Other values (such as the CRC or the compressed/decompressed size) are not needed right now due to the implementation of the JavaZipWriterStrategy.
-                    }
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
-                }
+        if (pool == null) {
+            for (LocalFileHeader header : transformable) {
+                LWJGL3Transformer.applyTransformation(header, LWJGL3Transformer.transformEntry(header, statistics));
+            }
+        } else {
+            List<ForkJoinTask<ByteData>> tasks = new ArrayList<>(transformable.size());
+            for (LocalFileHeader header : transformable) {
+                tasks.add(pool.submit(() -> LWJGL3Transformer.transformEntry(header, statistics)));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                LWJGL3Transformer.applyTransformation(transformable.get(i), tasks.get(i).join());
             }
         }
 
-        Iterator<CentralDirectoryFileHeader> headers = archive.getCentralDirectories().iterator();
-        while (headers.hasNext()) {
-            CentralDirectoryFileHeader header = headers.next();
-            String name = header.getFileNameAsString();
-            for (String list : FORBID_LIST) {
-                if (name.contains(list)) {
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.FILTER)) {
+            Iterator<CentralDirectoryFileHeader> headers = archive.getCentralDirectories().iterator();
+            while (headers.hasNext()) {
+                CentralDirectoryFileHeader header = headers.next();
+                if (!library && LWJGL3Transformer.isForbidden(header.getFileNameAsString())) {
                     headers.remove();
                 }
             }
@@ -116,38 +190,113 @@ public class LWJGL3Transformer {
 
         ZipWriterStrategy writeStrategy = new JavaZipWriterStrategy();
 
-        try {
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.WRITE, target.toString())) {
             writeStrategy.writeToDisk(archive, target);
+            statistics.bytesWritten(Files.size(target));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    static boolean isForbidden(@NotNull String name) {
+        return RULES.isForbidden(name);
+    }
+
+    /**
+     * Checks whether an entry is a candidate for transformation based on its name.
+     * Whether a candidate is actually transformed is decided based on its contents by
+     * {@link #transformClassBytes(byte[], String, TransformStatistics)}.
+     *
+     * @param name The name of the entry
+     * @return True if the entry may need to be transformed
+     */
+    static boolean isTransformTarget(@NotNull String name) {
+        return name.endsWith(".class");
+    }
+
     @Nullable
-    private static ByteData transformClassBytes(ByteData data) {
+    private static ByteData transformEntry(@NotNull LocalFileHeader header, @NotNull TransformStatistics statistics) {
+        String name = header.getFileNameAsString();
+        ByteData data;
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.DECOMPRESS, name)) {
+            data = ZipCompressions.decompress(header);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         if (data.length() < 1) {
             return null;
         }
-        byte[] bytes = ByteDataUtil.toByteArray(data);
-        try {
+        byte[] transformed = LWJGL3Transformer.transformClassBytes(ByteDataUtil.toByteArray(data), name, statistics);
+        return transformed == null ? null : BufferData.wrap(transformed);
+    }
+
+    private static void applyTransformation(@NotNull LocalFileHeader header, @Nullable ByteData data) {
+        if (data != null) {
+            header.setFileData(data);
+            header.setCompressionMethod(ZipCompressions.STORED);
+            // Other values (such as the CRC or the compressed/decompressed size) are not needed right now due to the implementation of the JavaZipWriterStrategy.
+        }
+    }
+
+    @NotNull
+    private static String getOutputMode() {
+        return System.getProperty("de.geolykt.starloader.lwjgl3ify.outputMode", "archive");
+    }
+
+    /**
+     * Obtains a string that changes whenever the output of the transformer may change for the same input.
+     * The output modes do not write byte-identical jars (for example, they differ in the order and compression
+     * of the entries), so the output mode is part of the fingerprint.
+     *
+     * @return The fingerprint of the rules applied by the transformer
+     */
+    @NotNull
+    public static String getRulesFingerprint() {
+        return "rewrite-revision:" + REWRITE_REVISION + '\n' + "output-mode:" + LWJGL3Transformer.getOutputMode() + '\n'
+                + OutputLayout.get().getDescription() + '\n' + RULES.getFingerprint();
+    }
+
+    /**
+     * Transforms a single class.
+     *
+     * @param bytes The bytes of the class
+     * @param name The name of the class, used for reporting failures
+     * @param statistics The statistics to record the transformation in
+     * @return The transformed class, or null if the class was not modified by the transformer or could not be transformed
+     */
+    @Nullable
+    static byte[] transformClassBytes(byte[] bytes, @NotNull String name, @NotNull TransformStatistics statistics) {
+        if (bytes.length < 1) {
+            return null;
+        }
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.TRANSFORM, name)) {
+            if (!ConstantPoolScanner.referencesAny(bytes, SCAN_TARGETS)) {
+                // Neither remapped classes nor any class whose members are redirected are referenced
+                return null;
+            }
             ClassFile file = new ClassFileReader().read(bytes);
             boolean transformed = transformClass(file);
             if (!transformed) {
                 return null;
             }
-            return BufferData.wrap(new ClassFileWriter().write(file));
+            byte[] result = new ClassFileWriter().write(file);
+            statistics.classTransformed();
+            return result;
         } catch (Throwable t) {
-            LoggerFactory.getLogger(LWJGL3Transformer.class).warn("Unable to transform bytes", t);
+            LoggerFactory.getLogger(LWJGL3Transformer.class).warn("Unable to transform {}", name, t);
+            statistics.classFailed(name);
             return null;
         }
     }
 
-    private static boolean transformClass(ClassFile file) {
+    static boolean transformClass(ClassFile file) {
         boolean transformed = false;
         ConstPool pool = file.getPool();
-        StringBuilder sharedBuilder = new StringBuilder();
-        for (int i = 0; i < pool.size(); i++) {
-            ConstPoolEntry entry = pool.get(i);
+        ConstPoolIndex index = new ConstPoolIndex(pool);
+        int cpIndex = 1;
+        for (ConstPoolEntry entry : pool) {
+            int entryIndex = cpIndex;
+            cpIndex += ConstPoolIndex.width(entry);
             if (entry instanceof CpUtf8) {
                 CpUtf8 utf = (CpUtf8) entry;
                 String in = utf.getText();
@@ -155,15 +304,10 @@ public class LWJGL3Transformer {
                     continue;
                 }
                 String mapping;
-                if (in.codePointAt(0) == '(') {
-                    sharedBuilder.setLength(0);
-                    sharedBuilder.appendCodePoint('(');
-                    if (!LWJGL3Transformer.remapSignature(sharedBuilder, in, 1, in.length())) {
-                        continue;
-                    }
-                    mapping = sharedBuilder.toString();
-                } else if (in.codePointBefore(in.length()) == ';') {
-                    mapping = LWJGL3Transformer.remapSingleDesc(in, sharedBuilder);
+                char first = in.charAt(0);
+                if (first == '(' || first == '<' || in.charAt(in.length() - 1) == ';') {
+                    // Method descriptor, field descriptor or signature
+                    mapping = REMAPPER.remap(in);
                     if (mapping == in) {
                         continue;
                     }
@@ -173,10 +317,39 @@ public class LWJGL3Transformer {
                         continue;
                     }
                 }
-                utf.setText(mapping);
+                index.setText(entryIndex, utf, mapping);
                 transformed = true;
             }
         }
+
+        // Find the constant pool indices that PUTFIELD and INVOKEVIRTUAL instructions must reference in order to be rewritten
+        int poolEnd = cpIndex;
+        boolean[] relevantFields = new boolean[poolEnd];
+        boolean[] relevantMethods = new boolean[poolEnd];
+        boolean anyRelevant = false;
+        cpIndex = 1;
+        for (ConstPoolEntry entry : pool) {
+            int entryIndex = cpIndex;
+            cpIndex += ConstPoolIndex.width(entry);
+            if (entry instanceof CpFieldRef) {
+                CpFieldRef fieldRef = (CpFieldRef) entry;
+                if (pool.getUtf(((CpClass) pool.get(fieldRef.getClassIndex())).getIndex()).equals(APPCFG3)) {
+                    relevantFields[entryIndex] = true;
+                    anyRelevant = true;
+                }
+            } else if (entry instanceof CpMethodRef) {
+                CpMethodRef methodRef = (CpMethodRef) entry;
+                if (pool.getUtf(((CpClass) pool.get(methodRef.getClassIndex())).getIndex()).equals(APPCFG3)
+                        && pool.getUtf(((CpNameType) pool.get(methodRef.getNameTypeIndex())).getNameIndex()).equals("addIcon")) {
+                    relevantMethods[entryIndex] = true;
+                    anyRelevant = true;
+                }
+            }
+        }
+        if (!anyRelevant) {
+            return transformed;
+        }
+
         InstructionReader insnReader = new InstructionReader();
         InstructionWriter insnWriter = new InstructionWriter();
         for (Method method : file.getMethods()) {
@@ -185,15 +358,18 @@ public class LWJGL3Transformer {
                     continue;
                 }
                 CodeAttribute code = (CodeAttribute) attr;
+                if (!LWJGL3Transformer.mayReference(code.getCode(), relevantFields, relevantMethods)) {
+                    continue;
+                }
                 List<Instruction> instructions = insnReader.read(code);
                 boolean modified = false;
                 int insnLen = instructions.size();
                 for (int i = 0 ; i < insnLen; i++) {
                     Instruction insn = instructions.get(i);
                     if (insn.getOpcode() == Opcodes.PUTFIELD) {
-                        CpFieldRef fieldRef = (CpFieldRef) pool.get(((IntOperandInstruction) insn).getOperand());
-                        String cname = pool.getUtf(((CpClass) pool.get(fieldRef.getClassIndex())).getIndex());
-                        if (cname.equals(APPCFG3)) {
+                        int operand = ((IntOperandInstruction) insn).getOperand();
+                        if (operand < poolEnd && relevantFields[operand]) {
+                            CpFieldRef fieldRef = (CpFieldRef) pool.get(operand);
                             CpNameType nameType = (CpNameType) pool.get(fieldRef.getNameTypeIndex());
                             String name = pool.getUtf(nameType.getNameIndex());
                             String type = pool.getUtf(nameType.getTypeIndex());
@@ -201,41 +377,31 @@ public class LWJGL3Transformer {
                             String mtype; 
                             int opcode;
                             int clazz;
-                            if (mname.equals("setWidth") || mname.equals("setHeight")) {
+                            if (mname.equals("setWidth") || mname.equals("setHeight")
+                                    || mname.equals("setForegroundFPS") || mname.equals("setVSyncEnabled")) {
+                                // These methods don't exist in libGDX 1.9.11, so the helper emulates them.
                                 opcode = Opcodes.INVOKESTATIC;
                                 mtype = "(L" + APPCFG3 + ";" + type + ")V";
-                                clazz = writeClass(pool, writeUTF8(pool, HELPER3));
-                            } else if (mname.equals("setForegroundFPS")) {
-                                // The method doesn't exist in libGDX 1.9.11, so we need to use the closest matching thing.
-                                mname = "setIdleFPS";
-                                opcode = Opcodes.INVOKEVIRTUAL;
-                                mtype = "(" + type + ")V";
-                                clazz = fieldRef.getClassIndex();
+                                clazz = index.classRef(index.utf8(HELPER3));
                             } else {
                                 opcode = Opcodes.INVOKEVIRTUAL;
                                 mtype = "(" + type + ")V";
                                 clazz = fieldRef.getClassIndex();
                             }
-                            int methodIndex = writeMethodRef(pool,
-                                    clazz,
-                                    writeNameType(pool,
-                                            writeUTF8(pool, mname),
-                                            writeUTF8(pool, mtype)));
+                            int methodIndex = index.methodRef(clazz,
+                                    index.nameType(index.utf8(mname), index.utf8(mtype)));
                             instructions.set(i, new IntOperandInstruction(opcode, methodIndex));
                             modified = true;
                         }
                     } else if (insn.getOpcode() == Opcodes.INVOKEVIRTUAL) {
-                        CpMethodRef methodRef = (CpMethodRef) pool.get(((IntOperandInstruction) insn).getOperand());
-                        String cname = pool.getUtf(((CpClass) pool.get(methodRef.getClassIndex())).getIndex());
-                        if (cname.equals(APPCFG3)) {
-                            CpNameType nameType = (CpNameType) pool.get(methodRef.getNameTypeIndex());
-                            String name = pool.getUtf(nameType.getNameIndex());
-                            if (name.equals("addIcon")) {
-                                instructions.set(i, new IntOperandInstruction(Opcodes.INVOKESTATIC,
-                                        writeMethodRef(pool, writeClass(pool, writeUTF8(pool, HELPER3)),
-                                                writeNameType(pool, nameType.getNameIndex(), writeUTF8(pool, "(L" + APPCFG3 + ";Ljava/lang/String;Lcom/badlogic/gdx/Files$FileType;)V")))));
-                                modified = true;
-                            }
+                        int operand = ((IntOperandInstruction) insn).getOperand();
+                        if (operand < poolEnd && relevantMethods[operand]) {
+                            // Only references to Lwjgl3ApplicationConfiguration#addIcon are relevant
+                            CpNameType nameType = (CpNameType) pool.get(((CpMethodRef) pool.get(operand)).getNameTypeIndex());
+                            instructions.set(i, new IntOperandInstruction(Opcodes.INVOKESTATIC,
+                                    index.methodRef(index.classRef(index.utf8(HELPER3)),
+                                            index.nameType(nameType.getNameIndex(), index.utf8("(L" + APPCFG3 + ";Ljava/lang/String;Lcom/badlogic/gdx/Files$FileType;)V")))));
+                            modified = true;
                         }
                     }
                 }
@@ -248,162 +414,33 @@ public class LWJGL3Transformer {
         return transformed;
     }
 
-    private static int writeClass(ConstPool pool, int str) {
-        int len = pool.size();
-        for (int i = 0; i < len; i++) {
-            ConstPoolEntry e = pool.get(i);
-            if (e instanceof CpClass && ((CpClass) e).getIndex() == str) {
-                return i;
-            }
-        }
-        pool.add(new CpClass(str));
-        return len + 1;
-    }
-
-    private static int writeNameType(ConstPool pool, int name, int desc) {
-        int len = pool.size();
-        for (int i = 0; i < len; i++) {
-            ConstPoolEntry e = pool.get(i);
-            if (e instanceof CpNameType) {
-                CpNameType mref = (CpNameType) e;
-                if (mref.getNameIndex() == name && mref.getTypeIndex() == desc) {
-                    return i;
-                }
-            }
-        }
-        pool.add(new CpNameType(name, desc));
-        return len + 1;
-    }
-
-    private static int writeMethodRef(ConstPool pool, int clazz, int nameType) {
-        int len = pool.size();
-        for (int i = 0; i < len; i++) {
-            ConstPoolEntry e = pool.get(i);
-            if (e instanceof CpMethodRef) {
-                CpMethodRef mref = (CpMethodRef) e;
-                if (mref.getClassIndex() == clazz && mref.getNameTypeIndex() == nameType) {
-                    return i;
+    /**
+     * Checks whether the bytecode could contain a PUTFIELD or INVOKEVIRTUAL instruction referencing one of
+     * the given constant pool indices without decoding the instructions. Operands or padding that happen to
+     * look like such an instruction cause false positives, which are harmless. False negatives are impossible.
+     *
+     * @param code The raw bytecode of a method
+     * @param fields The constant pool indices of relevant field references
+     * @param methods The constant pool indices of relevant method references
+     * @return False if the bytecode is guaranteed to not reference any of the given indices through the given instructions
+     */
+    private static boolean mayReference(byte[] code, boolean[] fields, boolean[] methods) {
+        for (int i = 0; i < code.length - 2; i++) {
+            int opcode = code[i] & 0xFF;
+            if (opcode == Opcodes.PUTFIELD || opcode == Opcodes.INVOKEVIRTUAL) {
+                int operand = ((code[i + 1] & 0xFF) << 8) | (code[i + 2] & 0xFF);
+                boolean[] relevant = opcode == Opcodes.PUTFIELD ? fields : methods;
+                if (operand < relevant.length && relevant[operand]) {
+                    return true;
                 }
             }
         }
-        pool.add(new CpMethodRef(clazz, nameType));
-        return len + 1;
-    }
-
-    private static int writeUTF8(ConstPool pool, String str) {
-        int len = pool.size();
-        for (int i = 0; i < len; i++) {
-            ConstPoolEntry e = pool.get(i);
-            if (e instanceof CpUtf8 && ((CpUtf8) e).getText().equals(str)) {
-                return i;
-            }
-        }
-        pool.add(new CpUtf8(str));
-        return len + 1;
-    }
-
-    private static boolean remapSignature(StringBuilder signatureOut, String signature, int start, int end) {
-        if (start == end) {
-            return false;
-        }
-        int type = signature.codePointAt(start++);
-        switch (type) {
-        case 'T':
-            // generics type parameter
-            // fall-through intended as they are similar enough in format compared to objects
-        case 'L':
-            // object
-            // find the end of the internal name of the object
-            int endObject = start;
-            while(true) {
-                // this will skip a character, but this is not interesting as class names have to be at least 1 character long
-                int codepoint = signature.codePointAt(++endObject);
-                if (codepoint == ';') {
-                    String name = signature.substring(start, endObject);
-                    String newName = DIRECT_MAPPINGS.get(name);
-                    boolean modified = false;
-                    if (newName != null) {
-                        name = newName;
-                        modified = true;
-                    }
-                    signatureOut.appendCodePoint(type);
-                    signatureOut.append(name);
-                    signatureOut.append(';');
-                    modified |= remapSignature(signatureOut, signature, ++endObject, end);
-                    return modified;
-                } else if (codepoint == '<') {
-                    // generics - please no
-                    // post scriptum: well, that was a bit easier than expected
-                    int openingBrackets = 1;
-                    int endGenerics = endObject;
-                    while(true) {
-                        codepoint = signature.codePointAt(++endGenerics);
-                        if (codepoint == '>' ) {
-                            if (--openingBrackets == 0) {
-                                break;
-                            }
-                        } else if (codepoint == '<') {
-                            openingBrackets++;
-                        }
-                    }
-                    String name = signature.substring(start, endObject);
-                    String newName = DIRECT_MAPPINGS.get(name);
-                    boolean modified = false;
-                    if (newName != null) {
-                        name = newName;
-                        modified = true;
-                    }
-                    signatureOut.append('L');
-                    signatureOut.append(name);
-                    signatureOut.append('<');
-                    modified |= remapSignature(signatureOut, signature, endObject + 1, endGenerics++);
-                    signatureOut.append('>');
-                    // apparently that can be rarely be a '.', don't ask when or why exactly this occours
-                    signatureOut.appendCodePoint(signature.codePointAt(endGenerics));
-                    modified |= remapSignature(signatureOut, signature, ++endGenerics, end);
-                    return modified;
-                }
-            }
-        case '+':
-            // idk what this one does - but it appears that it works good just like it does right now
-        case '*':
-            // wildcard - this can also be read like a regular primitive
-            // fall-through intended
-        case '(':
-        case ')':
-            // apparently our method does not break even in these cases, so we will consider them raw primitives
-        case '[':
-            // array - fall through intended as in this case they behave the same
-        default:
-            // primitive
-            signatureOut.appendCodePoint(type);
-            return remapSignature(signatureOut, signature, start, end); // Did not modify the signature - but following operations could
-        }
-    }
-
-    private static String remapSingleDesc(String input, StringBuilder sharedBuilder) {
-        int indexofL = input.indexOf('L');
-        if (indexofL == -1) {
-            return input;
-        }
-        int length = input.length();
-        String internalName = input.substring(indexofL + 1, length - 1);
-        String newInternalName = DIRECT_MAPPINGS.get(internalName);
-        if (newInternalName == null) {
-            return input;
-        }
-        sharedBuilder.setLength(indexofL + 1);
-        sharedBuilder.setCharAt(indexofL, 'L');
-        while(indexofL != 0) {
-            sharedBuilder.setCharAt(--indexofL, '[');
-        }
-        sharedBuilder.append(newInternalName);
-        sharedBuilder.append(';');
-        return sharedBuilder.toString();
+        return false;
     }
 
     static {
-        DIRECT_MAPPINGS.put("com/badlogic/gdx/backends/lwjgl/LwjglApplication", "com/badlogic/gdx/backends/lwjgl3/Lwjgl3Application");
-        DIRECT_MAPPINGS.put("com/badlogic/gdx/backends/lwjgl/LwjglApplicationConfiguration", "com/badlogic/gdx/backends/lwjgl3/Lwjgl3ApplicationConfiguration");
+        List<String> scanTargets = new ArrayList<>(DIRECT_MAPPINGS.keySet());
+        scanTargets.add(APPCFG3);
+        SCAN_TARGETS = new SubstringMatcher(scanTargets);
     }
 }
@@ -3,18 +3,27 @@ package de.geolykt.starloader.lwjgl3ify;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.lwjgl.glfw.GLFW;
+import org.slf4j.LoggerFactory;
 
 import net.minestom.server.extras.selfmodification.MinestomRootClassLoader;
 
 public class LWJGL3ify {
 
     public static void main(String[] args) throws Throwable {
-        GLFW.glfwGetCurrentContext();
+        TransformStatistics statistics = new TransformStatistics();
         String forwardTarget = System.getProperty("de.geolykt.starloader.lwjgl3ify.forwardTo");
         if (forwardTarget == null) {
             throw new IllegalStateException("The System property \"de.geolykt.starloader.lwjgl3ify.forwardTo\" is not set.");
@@ -23,30 +32,117 @@ public class LWJGL3ify {
         if (transformSource == null) {
             throw new IllegalStateException("The System property \"de.geolykt.starloader.lwjgl3ify.transformFrom\" is not set.");
         }
+        boolean lazyTransform = Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.lazyTransform");
         String transformTarget = System.getProperty("de.geolykt.starloader.lwjgl3ify.transformTo");
-        if (transformTarget == null) {
-            throw new IllegalStateException("The System property \"de.geolykt.starloader.lwjgl3ify.transformTo\" is not set.");
-        }
-        if (transformSource.equals(transformTarget)) {
-            throw new IllegalStateException("The transform source and transform targets may not match.");
+        if (!lazyTransform) {
+            if (transformTarget == null) {
+                throw new IllegalStateException("The System property \"de.geolykt.starloader.lwjgl3ify.transformTo\" is not set.");
+            }
+            if (transformSource.equals(transformTarget)) {
+                throw new IllegalStateException("The transform source and transform targets may not match.");
+            }
         }
+        String libDir = System.getProperty("de.geolykt.starloader.lwjgl3ify.extraLibraryDirectory");
+        String libraryTarget = System.getProperty("de.geolykt.starloader.lwjgl3ify.transformLibrariesTo");
 
-        LWJGL3Transformer.invoke(Paths.get(transformSource), Paths.get(transformTarget));
+        // The steps are run concurrently where possible, the forward target is only resolved once the classpath is complete.
+        // The natives are loaded on the main thread in the meantime.
+        try (StartupTasks tasks = new StartupTasks(statistics)) {
+            CompletableFuture<List<Path>> scan = tasks.submit("library scan", () -> {
+                if (libDir == null) {
+                    return Collections.<Path>emptyList();
+                }
+                try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.LIBRARY_SCAN, libDir)) {
+                    return BatchTransformer.listJars(Paths.get(libDir));
+                }
+            });
+            // Classes are transformed as they are loaded in lazy mode, so no transformed copy of the jar is written
+            CompletableFuture<URL> lazyRoot = lazyTransform
+                    ? tasks.submit("lazy transformer index", () -> LazyTransformer.open(Paths.get(transformSource)).getRootURL())
+                    : CompletableFuture.completedFuture(null);
 
-        String libDir = System.getProperty("de.geolykt.starloader.lwjgl3ify.extraLibraryDirectory");
-        if (libDir != null) {
-            for (Path p : Files.list(Paths.get(libDir)).toArray(Path[]::new)) {
-                if (p.getFileName().toString().endsWith(".jar")) {
-                    MinestomRootClassLoader.getInstance().addURL(p.toUri().toURL());
+            CompletableFuture<?> transform;
+            CompletableFuture<List<Path>> libraries;
+            if (libraryTarget != null) {
+                // Transform the libraries alongside the game jar
+                CompletableFuture<Map<Path, Path>> batch = tasks.submit("batch transform", () -> {
+                    Files.createDirectories(Paths.get(libraryTarget));
+                    Map<Path, Path> jobs = new LinkedHashMap<>();
+                    if (!lazyTransform) {
+                        jobs.put(Paths.get(transformSource), Paths.get(transformTarget));
+                    }
+                    Map<Path, Path> libraryJobs = BatchTransformer.toJobs(scan.join(), Paths.get(libraryTarget));
+                    jobs.putAll(libraryJobs);
+                    Map<Path, Path> results = BatchTransformer.transform(jobs, libraryJobs.keySet(), statistics);
+                    if (!lazyTransform && !results.get(Paths.get(transformSource)).equals(Paths.get(transformTarget))) {
+                        throw new IllegalStateException("Unable to transform the game jar.");
+                    }
+                    return results;
+                }, scan);
+                transform = batch;
+                libraries = batch.thenCombine(scan, (results, libraryJars) -> {
+                    List<Path> transformedLibraries = new ArrayList<>();
+                    for (Path library : libraryJars) {
+                        transformedLibraries.add(results.get(library));
+                    }
+                    return transformedLibraries;
+                });
+            } else {
+                transform = lazyTransform ? CompletableFuture.completedFuture(null)
+                        : tasks.submit("transform", () -> TransformCache.invokeCached(Paths.get(transformSource), Paths.get(transformTarget), statistics));
+                libraries = scan;
+            }
+
+            CompletableFuture<?> libraryClasspath = tasks.submit("library classpath", () -> {
+                try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.ADD_URL)) {
+                    if (lazyTransform) {
+                        MinestomRootClassLoader.getInstance().addURL(lazyRoot.join());
+                    }
+                    for (Path p : libraries.join()) {
+                        MinestomRootClassLoader.getInstance().addURL(p.toUri().toURL());
+                    }
                 }
+                return null;
+            }, lazyRoot, libraries);
+            CompletableFuture<?> classpath = tasks.submit("transformed classpath", () -> {
+                if (!lazyTransform && Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.appendClasspath")) {
+                    try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.ADD_URL)) {
+                        MinestomRootClassLoader.getInstance().addURL(Paths.get(transformTarget).toAbsolutePath().toUri().toURL());
+                    }
+                }
+                return null;
+            }, libraryClasspath, transform);
+            if (Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.launcherCdsArchive")) {
+                // Not a prerequisite of the forward target, the archive is only used by later launches.
+                // The transform target is not required in lazy mode, in which case the archive is stored next to the game jar.
+                Path cdsLocation = Paths.get(transformTarget != null ? transformTarget : transformSource);
+                tasks.submit("launcher AppCDS archive", () -> {
+                    LauncherCdsArchive.prepare(cdsLocation);
+                    return null;
+                }).whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        LoggerFactory.getLogger(LWJGL3ify.class).warn("Unable to prepare the launcher AppCDS archive",
+                                failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                    }
+                });
             }
-        }
-        if (Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.appendClasspath")) {
-            MinestomRootClassLoader.getInstance().addURL(Paths.get(transformTarget).toAbsolutePath().toUri().toURL());
+
+            tasks.run("natives", () -> {
+                try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.NATIVES)) {
+                    NativeLibraryCache.stage();
+                    GLFW.glfwGetCurrentContext();
+                }
+                return null;
+            });
+            StartupTasks.await(classpath);
         }
 
         try {
-            MethodHandle handle = MethodHandles.publicLookup().findStatic(Class.forName(forwardTarget), "main", MethodType.methodType(void.class, String[].class));
+            MethodHandle handle;
+            try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.FORWARD, forwardTarget)) {
+                handle = MethodHandles.publicLookup().findStatic(Class.forName(forwardTarget), "main", MethodType.methodType(void.class, String[].class));
+            }
+            statistics.report();
             handle.invokeExact(args);
         } catch (NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
             throw new IllegalStateException("Unable to forward to forward target (\"" + forwardTarget + "\")", e);
@@ -0,0 +1,209 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates an application class data sharing (AppCDS) archive for the classpath of the launcher only. It does not cover
+ * the classes of the game or of the libraries: the JVM only serves classes defined by its built-in class loaders from an
+ * archive, while these classes are defined by the {@code MinestomRootClassLoader} (from the transformed jar, the lazily
+ * transformed game jar or the jars added via {@code addURL}). Putting them onto the JVM classpath instead would make the
+ * system class loader define them and bypass the {@code MinestomRootClassLoader} and its transformers, so only the startup
+ * cost of the launcher itself (Starloader, Mixin, ASM, lljzip, LWJGL and the like) is reduced.
+ *
+ * <p>The archive is stored next to the transformed jar, or next to the game jar in lazy mode (with the {@code .jsa}
+ * extension), and is dumped in a separate JVM in the background so that the startup of the game is not delayed.
+ * As the archive must be passed to the JVM on startup, the archive cannot be used by the launch that creates it.
+ * The JVM arguments required to use it are logged instead and need to be added to the launch configuration; they only
+ * point the JVM to the archive and leave the classpath of the launch as it is.
+ * The archive is regenerated whenever any jar on its classpath or the JVM changes.
+ *
+ * <p>Requires Java 11 or newer, generation is enabled through the {@code de.geolykt.starloader.lwjgl3ify.launcherCdsArchive}
+ * system property.
+ */
+public class LauncherCdsArchive {
+
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+    private static final String CLASS_LIST_SUFFIX = ".classlist";
+    private static final String STAMP_SUFFIX = ".jsa.stamp";
+    private static final String LOG_SUFFIX = ".jsa.log";
+
+    /**
+     * Ensures that an up-to-date archive exists for the classpath of the launcher, dumping it in the background if necessary.
+     *
+     * @param location The file next to which the archive is stored
+     */
+    public static void prepare(@NotNull Path location) {
+        Logger logger = LoggerFactory.getLogger(LauncherCdsArchive.class);
+        if (LauncherCdsArchive.getFeatureVersion() < 11) {
+            logger.info("Not generating a launcher AppCDS archive as it requires Java 11 or newer.");
+            return;
+        }
+
+        List<Path> classpath = new ArrayList<>();
+        for (String element : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!element.isEmpty()) {
+                classpath.add(Paths.get(element).toAbsolutePath());
+            }
+        }
+        if (classpath.isEmpty()) {
+            logger.info("Not generating a launcher AppCDS archive as the classpath of the launcher is empty.");
+            return;
+        }
+        StringBuilder classpathString = new StringBuilder();
+        for (Path element : classpath) {
+            if (classpathString.length() != 0) {
+                classpathString.append(File.pathSeparatorChar);
+            }
+            classpathString.append(element);
+        }
+
+        Path archive = LauncherCdsArchive.sibling(location, ARCHIVE_SUFFIX);
+        Path stamp = LauncherCdsArchive.sibling(location, STAMP_SUFFIX);
+        // The classpath must stay as is, the archive is only used if the classpath of the launch starts with the dumped classpath
+        String flags = "-XX:SharedArchiveFile=" + archive.toAbsolutePath() + " -Xshare:auto";
+        String fingerprint;
+        try {
+            fingerprint = LauncherCdsArchive.fingerprint(classpath);
+        } catch (IOException e) {
+            logger.warn("Unable to fingerprint the classpath of the launcher AppCDS archive", e);
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(stamp)) {
+            properties.load(in);
+            if (fingerprint.equals(properties.getProperty("fingerprint")) && Files.isRegularFile(archive)) {
+                logger.info("The launcher AppCDS archive is up to date. Launch the JVM with \"{}\" to use it.", flags);
+                return;
+            }
+        } catch (NoSuchFileException e) {
+            // No archive generated yet
+        } catch (IOException e) {
+            logger.warn("Unable to read the stamp of the launcher AppCDS archive {}", archive, e);
+        }
+
+        Path classList = LauncherCdsArchive.sibling(location, CLASS_LIST_SUFFIX);
+        Path temporary = LauncherCdsArchive.sibling(location, ARCHIVE_SUFFIX + ".tmp");
+        Process process;
+        try {
+            LauncherCdsArchive.writeClassList(classList, classpath);
+            Files.deleteIfExists(stamp);
+            ProcessBuilder builder = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xshare:dump",
+                    "-XX:SharedClassListFile=" + classList.toAbsolutePath(),
+                    "-XX:SharedArchiveFile=" + temporary.toAbsolutePath(),
+                    "-cp", classpathString.toString());
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(LauncherCdsArchive.sibling(location, LOG_SUFFIX).toFile());
+            process = builder.start();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Unable to start the generation of the launcher AppCDS archive {}", archive, e);
+            return;
+        }
+        logger.info("Generating the launcher AppCDS archive {} in the background.", archive);
+
+        Thread waiter = new Thread(() -> {
+            try {
+                int exitCode = process.waitFor();
+                if (exitCode != 0) {
+                    logger.warn("Generating the launcher AppCDS archive failed with exit code {}, see {} for details.", exitCode, LauncherCdsArchive.sibling(location, LOG_SUFFIX));
+                    Files.deleteIfExists(temporary);
+                    return;
+                }
+                try {
+                    Files.move(temporary, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Properties stampProperties = new Properties();
+                stampProperties.setProperty("fingerprint", fingerprint);
+                try (OutputStream out = Files.newOutputStream(stamp)) {
+                    stampProperties.store(out, "LWJGL3ify launcher AppCDS archive stamp - do not edit");
+                }
+                logger.info("Generated the launcher AppCDS archive. Launch the JVM with \"{}\" to use it.", flags);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.warn("Unable to store the launcher AppCDS archive {}", archive, e);
+            }
+        }, "LWJGL3ify launcher AppCDS generator");
+        waiter.setDaemon(true);
+        waiter.start();
+    }
+
+    private static void writeClassList(@NotNull Path classList, @NotNull List<Path> classpath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(classList, StandardCharsets.UTF_8)) {
+            for (Path element : classpath) {
+                if (!Files.isRegularFile(element)) {
+                    continue;
+                }
+                try (ZipFile zip = new ZipFile(element.toFile())) {
+                    Enumeration<? extends ZipEntry> entries = zip.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")) {
+                            continue;
+                        }
+                        writer.write(name, 0, name.length() - 6);
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static String fingerprint(@NotNull List<Path> classpath) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(System.getProperty("java.home")).append('\n');
+        builder.append(System.getProperty("java.vm.version")).append('\n');
+        for (Path element : classpath) {
+            builder.append(element);
+            if (Files.exists(element)) {
+                builder.append(':').append(Files.size(element));
+                builder.append(':').append(Files.getLastModifiedTime(element).toMillis());
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    private static Path sibling(@NotNull Path file, @NotNull String suffix) {
+        return file.resolveSibling(file.getFileName().toString() + suffix);
+    }
+
+    private static int getFeatureVersion() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
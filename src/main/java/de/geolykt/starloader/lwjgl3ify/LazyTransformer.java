@@ -0,0 +1,227 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Serves the contents of the untransformed game jar through a custom URL scheme, transforming classes
+ * at the moment they are requested by a class loader and hiding all entries removed by the transformer.
+ * The URL obtained via {@link #getRootURL()} can be added to any {@link java.net.URLClassLoader}
+ * (such as the MinestomRootClassLoader) in place of an ahead-of-time transformed jar.
+ *
+ * <p>Classes that the transformer ends up changing are cached in memory as the JDK's class loaders
+ * usually open a resource twice (once to probe for its existence and once to read it).
+ */
+public class LazyTransformer extends URLStreamHandler {
+
+    private static final String PROTOCOL = "lwjgl3ify";
+    private static final AtomicInteger ID_COUNTER = new AtomicInteger();
+
+    private final ZipFile source;
+    private final String prefix;
+    private final URL root;
+    private final Map<String, byte[]> transformed = new ConcurrentHashMap<>();
+    private final Set<String> untouched = ConcurrentHashMap.newKeySet();
+    private final TransformStatistics statistics = new TransformStatistics();
+
+    private LazyTransformer(@NotNull ZipFile source) {
+        this.source = source;
+        this.prefix = "/" + ID_COUNTER.getAndIncrement() + "/";
+        try {
+            this.root = new URL(PROTOCOL, null, -1, this.prefix, this);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+        // Classes are transformed for as long as the game runs, so there is no earlier point to report at
+        Runtime.getRuntime().addShutdownHook(new Thread(this.statistics::report, "LWJGL3ify lazy transform report"));
+    }
+
+    /**
+     * Opens the given jar for lazy transformation. The jar remains open for the lifetime of the JVM.
+     *
+     * @param source The untransformed jar
+     * @return The lazy transformer serving the contents of the jar
+     */
+    @NotNull
+    public static LazyTransformer open(@NotNull Path source) {
+        try {
+            return new LazyTransformer(new ZipFile(source.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Obtains the statistics of all transformations performed so far. The statistics are reported when the JVM shuts down.
+     *
+     * @return The statistics of this lazy transformer
+     */
+    @NotNull
+    public TransformStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    @NotNull
+    public URL getRootURL() {
+        return this.root;
+    }
+
+    @Override
+    protected URLConnection openConnection(URL u) throws IOException {
+        String path = u.getPath();
+        if (!path.startsWith(this.prefix)) {
+            throw new FileNotFoundException(u.toString());
+        }
+        return new TransformingConnection(u, LazyTransformer.decodePath(path.substring(this.prefix.length())));
+    }
+
+    @NotNull
+    private static String decodePath(@NotNull String path) {
+        if (path.indexOf('%') == -1) {
+            return path;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '%' && i + 2 < path.length()) {
+                out.write(Integer.parseInt(path.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                out.write(encoded, 0, encoded.length);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Nullable
+    private ZipEntry getEntry(@NotNull String name) {
+        if (name.isEmpty() || LWJGL3Transformer.isForbidden(name)) {
+            return null;
+        }
+        ZipEntry entry = this.source.getEntry(name);
+        if (entry == null || entry.isDirectory()) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Reads the contents of a class that may need to be transformed.
+     *
+     * @param name The name of the entry
+     * @param entry The entry
+     * @return The (possibly transformed) contents, or null if the entry is known to be unaffected by the transformer
+     * @throws IOException If the entry could not be read
+     */
+    @Nullable
+    private byte[] readTransformed(@NotNull String name, @NotNull ZipEntry entry) throws IOException {
+        byte[] cached = this.transformed.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        if (!LWJGL3Transformer.isTransformTarget(name) || this.untouched.contains(name)) {
+            return null;
+        }
+        byte[] original;
+        try (InputStream in = this.source.getInputStream(entry)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(entry.getSize() > 0 ? (int) entry.getSize() : 4096);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            original = out.toByteArray();
+        }
+        byte[] result = LWJGL3Transformer.transformClassBytes(original, name, this.statistics);
+        if (result == null) {
+            this.untouched.add(name);
+            return original;
+        }
+        this.transformed.put(name, result);
+        return result;
+    }
+
+    private class TransformingConnection extends URLConnection {
+
+        private final String name;
+        @Nullable
+        private ZipEntry entry;
+        @Nullable
+        private byte[] contents;
+
+        private TransformingConnection(URL url, String name) {
+            super(url);
+            this.name = name;
+        }
+
+        @Override
+        public void connect() throws IOException {
+            if (this.connected) {
+                return;
+            }
+            this.entry = LazyTransformer.this.getEntry(this.name);
+            if (this.entry == null) {
+                throw new FileNotFoundException(this.url.toString());
+            }
+            this.connected = true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            this.connect();
+            byte[] contents = this.contents;
+            ZipEntry entry = this.entry;
+            if (contents == null && entry != null) {
+                contents = LazyTransformer.this.readTransformed(this.name, entry);
+                if (contents == null) {
+                    // Entries unaffected by the transformer are streamed straight from the jar
+                    return LazyTransformer.this.source.getInputStream(entry);
+                }
+                this.contents = contents;
+            }
+            if (contents == null) {
+                throw new FileNotFoundException(this.url.toString());
+            }
+            return new ByteArrayInputStream(contents);
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            try {
+                this.connect();
+            } catch (IOException e) {
+                return -1;
+            }
+            byte[] contents = this.contents;
+            if (contents != null) {
+                return contents.length;
+            }
+            byte[] cached = LazyTransformer.this.transformed.get(this.name);
+            if (cached != null) {
+                return cached.length;
+            }
+            ZipEntry entry = this.entry;
+            return entry == null ? -1 : entry.getSize();
+        }
+    }
+}
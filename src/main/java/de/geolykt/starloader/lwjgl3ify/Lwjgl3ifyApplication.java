@@ -0,0 +1,236 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+
+/**
+ * Replacement of the LWJGL2 application. The transformer constructs this class instead of a plain {@link Lwjgl3Application}.
+ *
+ * <p>If a foreground frame cap was configured (see {@link Helper#setForegroundFPS(Lwjgl3ApplicationConfiguration, int)}),
+ * the listener of the game is wrapped so that every invocation of its render method is paced by a {@link FrameLimiter}.
+ * The pacing happens within the render method, so frames that are skipped by libGDX (for example because continuous
+ * rendering is disabled or the window is iconified) are not forced to be rendered.
+ *
+ * <p>If the {@code de.geolykt.starloader.lwjgl3ify.glProfiler} system property is set to true, libGDX's
+ * {@link com.badlogic.gdx.graphics.profiling.GLProfiler GLProfiler} is enabled through
+ * {@link Helper#installFrameProfiler(com.badlogic.gdx.Graphics, FrameProfiler)} once the application is created and every
+ * invocation of the render method of the game is recorded as a frame of the profiler, which is obtainable through
+ * {@link Helper#getFrameProfiler()}. When the application is disposed a summary is logged and, if the
+ * {@code de.geolykt.starloader.lwjgl3ify.glProfilerDump} system property is set, the recorded frames are written to the
+ * file it points to as CSV.
+ *
+ * <p>If input metrics are enabled (see {@link Helper#getInputMetrics()}), the input processor of the game is wrapped in an
+ * {@link InstrumentedInputProcessor} whenever a callback of the listener returns and unwrapped again before the next
+ * callback is invoked. The backend dispatches the input events between the callbacks, so every event is recorded while
+ * the game never observes the wrapper through {@link Input#getInputProcessor()}.
+ *
+ * <p>If none of this is requested the listener is passed through as is.
+ */
+public class Lwjgl3ifyApplication extends Lwjgl3Application {
+
+    /**
+     * The amount of frames kept by the profiler.
+     */
+    private static final int FRAME_CAPACITY = 1024;
+
+    static final class WrappingListener implements ApplicationListener {
+        @NotNull
+        private final ApplicationListener delegate;
+        @NotNull
+        private final Lwjgl3ApplicationConfiguration config;
+        private final boolean pace;
+        @Nullable
+        private final FrameProfiler profiler;
+        @Nullable
+        private final InputMetrics inputMetrics;
+        @Nullable
+        private FrameLimiter limiter;
+        @Nullable
+        private InstrumentedInputProcessor instrumentedProcessor;
+
+        WrappingListener(@NotNull ApplicationListener delegate, @NotNull Lwjgl3ApplicationConfiguration config, boolean pace,
+                @Nullable FrameProfiler profiler, @Nullable InputMetrics inputMetrics) {
+            this.delegate = delegate;
+            this.config = config;
+            this.pace = pace;
+            this.profiler = profiler;
+            this.inputMetrics = inputMetrics;
+        }
+
+        /**
+         * Replaces the instrumented input processor with the processor of the game before the game is called.
+         */
+        private void exposeInputProcessor() {
+            Input input = Gdx.input;
+            if (this.inputMetrics == null || input == null) {
+                return;
+            }
+            InputProcessor processor = input.getInputProcessor();
+            if (processor instanceof InstrumentedInputProcessor) {
+                input.setInputProcessor(((InstrumentedInputProcessor) processor).getDelegate());
+            }
+        }
+
+        /**
+         * Instruments the input processor of the game once the game returns, so that the events dispatched
+         * before the next callback are recorded. The wrapper is reused as long as the game keeps its processor.
+         */
+        private void instrumentInputProcessor() {
+            InputMetrics metrics = this.inputMetrics;
+            Input input = Gdx.input;
+            if (metrics == null || input == null) {
+                return;
+            }
+            InputProcessor processor = input.getInputProcessor();
+            if (processor == null || processor instanceof InstrumentedInputProcessor) {
+                return;
+            }
+            InstrumentedInputProcessor instrumented = this.instrumentedProcessor;
+            if (instrumented == null || instrumented.getDelegate() != processor || instrumented.getInput() != input) {
+                instrumented = new InstrumentedInputProcessor(processor, input, metrics);
+                this.instrumentedProcessor = instrumented;
+            }
+            input.setInputProcessor(instrumented);
+        }
+
+        @Override
+        public void create() {
+            if (this.pace) {
+                // The display mode is only known once GLFW is initialized
+                this.limiter = Helper.createFrameLimiter(this.config);
+            }
+            FrameProfiler profiler = this.profiler;
+            if (profiler != null) {
+                Helper.installFrameProfiler(Gdx.graphics, profiler);
+            }
+            this.delegate.create();
+            this.instrumentInputProcessor();
+        }
+
+        @Override
+        public void resize(int width, int height) {
+            this.exposeInputProcessor();
+            this.delegate.resize(width, height);
+            this.instrumentInputProcessor();
+        }
+
+        @Override
+        public void render() {
+            FrameLimiter limiter = this.limiter;
+            if (limiter != null) {
+                limiter.sync();
+            }
+            this.exposeInputProcessor();
+            FrameProfiler profiler = this.profiler;
+            if (profiler == null) {
+                this.delegate.render();
+            } else {
+                profiler.beginFrame();
+                try {
+                    this.delegate.render();
+                } finally {
+                    profiler.endFrame();
+                }
+            }
+            this.instrumentInputProcessor();
+        }
+
+        @Override
+        public void pause() {
+            this.exposeInputProcessor();
+            this.delegate.pause();
+            this.instrumentInputProcessor();
+        }
+
+        @Override
+        public void resume() {
+            this.exposeInputProcessor();
+            this.delegate.resume();
+            this.instrumentInputProcessor();
+        }
+
+        @Override
+        public void dispose() {
+            this.exposeInputProcessor();
+            try {
+                this.delegate.dispose();
+            } finally {
+                FrameProfiler profiler = this.profiler;
+                if (profiler != null) {
+                    Lwjgl3ifyApplication.report(profiler);
+                }
+            }
+        }
+    }
+
+    public Lwjgl3ifyApplication(ApplicationListener listener, Lwjgl3ApplicationConfiguration config) {
+        super(Lwjgl3ifyApplication.wrap(listener, config, Helper.getInputMetrics()), config);
+    }
+
+    static ApplicationListener wrap(ApplicationListener listener, Lwjgl3ApplicationConfiguration config, @Nullable InputMetrics inputMetrics) {
+        if (listener == null || config == null) {
+            return listener;
+        }
+        boolean pace = Helper.hasForegroundFPS(config);
+        boolean profile = Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.glProfiler");
+        if (!pace && !profile && inputMetrics == null) {
+            return listener;
+        }
+        return new WrappingListener(listener, config, pace, profile ? new FrameProfiler(FRAME_CAPACITY) : null, inputMetrics);
+    }
+
+    @Override
+    public ApplicationListener getApplicationListener() {
+        // Do not expose the wrapper, the game may cast the listener to its own type
+        ApplicationListener listener = super.getApplicationListener();
+        if (listener instanceof WrappingListener) {
+            return ((WrappingListener) listener).delegate;
+        }
+        return listener;
+    }
+
+    private static void report(@NotNull FrameProfiler profiler) {
+        Logger logger = LoggerFactory.getLogger(Lwjgl3ifyApplication.class);
+        List<FrameProfiler.Frame> frames = profiler.getFrames();
+        if (!frames.isEmpty()) {
+            long renderTime = 0;
+            long drawCalls = 0;
+            long textureBindings = 0;
+            long shaderSwitches = 0;
+            for (FrameProfiler.Frame frame : frames) {
+                renderTime += frame.getRenderTime();
+                drawCalls += frame.getDrawCalls();
+                textureBindings += frame.getTextureBindings();
+                shaderSwitches += frame.getShaderSwitches();
+            }
+            int count = frames.size();
+            logger.info("GL profiler: {} frames rendered. Averages over the last {} frames: {} ms frame time, {} ms render time, {} draw calls, {} texture bindings, {} shader switches.",
+                    profiler.getFrameCount(), count, String.format("%.2f", profiler.getAverageFrameTime() / 1_000_000D), String.format("%.2f", renderTime / 1_000_000D / count),
+                    drawCalls / count, textureBindings / count, shaderSwitches / count);
+        }
+        String dump = System.getProperty("de.geolykt.starloader.lwjgl3ify.glProfilerDump");
+        if (dump != null) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(dump), StandardCharsets.UTF_8)) {
+                profiler.dump(writer);
+            } catch (IOException e) {
+                logger.warn("Unable to write the frames recorded by the GL profiler to {}", dump, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extracts the LWJGL3 natives from the classpath into a persistent cache directory and points LWJGL at it
+ * through the {@code org.lwjgl.librarypath} system property, so that the natives are not extracted again on every launch.
+ *
+ * <p>The cache directory is versioned by the LWJGL version, the operating system and the architecture.
+ * Cached libraries are verified against the SHA-1 hashes LWJGL ships next to its natives (or against the hash of the
+ * bundled library if there is no such file) and replaced through an atomic move, so concurrent launches never
+ * observe a partially written library.
+ *
+ * <p>The cache is located in {@code lwjgl3ify-natives-<user name>} within the temporary directory unless another directory is
+ * set through the {@code de.geolykt.starloader.lwjgl3ify.nativeCacheDirectory} system property. Staging is skipped
+ * if {@code org.lwjgl.librarypath} is already set or if {@code de.geolykt.starloader.lwjgl3ify.disableNativeCache}
+ * is set to true.
+ */
+public class NativeLibraryCache {
+
+    /**
+     * The LWJGL modules whose natives are staged, as paths relative to the platform directory of the natives jars.
+     */
+    private static final String[] MODULES = {
+        "org/lwjgl/lwjgl",
+        "org/lwjgl/glfw/glfw",
+        "org/lwjgl/opengl/lwjgl_opengl",
+        "org/lwjgl/openal/openal",
+        "org/lwjgl/jemalloc/jemalloc"
+    };
+
+    /**
+     * Stages the natives and sets {@code org.lwjgl.librarypath} if all natives present on the classpath could be staged.
+     * Must be called before LWJGL loads any native library.
+     *
+     * @return True if the library path was set
+     */
+    public static boolean stage() {
+        if (Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.disableNativeCache") || System.getProperty("org.lwjgl.librarypath") != null) {
+            return false;
+        }
+        Logger logger = LoggerFactory.getLogger(NativeLibraryCache.class);
+        String platform = NativeLibraryCache.getPlatform();
+        String arch = NativeLibraryCache.getArchitecture();
+        if (platform == null || arch == null) {
+            logger.debug("Not caching natives for unknown platform {} / {}", System.getProperty("os.name"), System.getProperty("os.arch"));
+            return false;
+        }
+        String cacheDirectory = System.getProperty("de.geolykt.starloader.lwjgl3ify.nativeCacheDirectory");
+        Path directory = (cacheDirectory != null ? Paths.get(cacheDirectory) : Paths.get(System.getProperty("java.io.tmpdir"), "lwjgl3ify-natives-" + System.getProperty("user.name", "user")))
+                .resolve(Version.getVersion().replaceAll("[^A-Za-z0-9._-]", "_"))
+                .resolve(platform + '-' + arch);
+
+        int staged = 0;
+        try {
+            Files.createDirectories(directory);
+            for (String module : MODULES) {
+                int lastSlash = module.lastIndexOf('/');
+                String fileName = NativeLibraryCache.mapLibraryName(platform, module.substring(lastSlash + 1));
+                String resource = platform + '/' + arch + '/' + module.substring(0, lastSlash + 1) + fileName;
+                if (NativeLibraryCache.class.getClassLoader().getResource(resource) == null) {
+                    continue;
+                }
+                NativeLibraryCache.stageLibrary(resource, directory.resolve(fileName));
+                staged++;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to cache the LWJGL natives in {}, LWJGL will extract them on its own.", directory, e);
+            return false;
+        }
+        if (staged == 0) {
+            return false;
+        }
+        System.setProperty("org.lwjgl.librarypath", directory.toAbsolutePath().toString());
+        logger.debug("Loading {} LWJGL natives from {}", staged, directory);
+        return true;
+    }
+
+    private static void stageLibrary(@NotNull String resource, @NotNull Path target) throws IOException {
+        ClassLoader loader = NativeLibraryCache.class.getClassLoader();
+        String expected = null;
+        try (InputStream in = loader.getResourceAsStream(resource + ".sha1")) {
+            if (in != null) {
+                expected = new String(NativeLibraryCache.readAll(in), StandardCharsets.US_ASCII).trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        if (expected == null) {
+            try (InputStream in = loader.getResourceAsStream(resource)) {
+                expected = NativeLibraryCache.sha1(in);
+            }
+        }
+        if (expected.equals(NativeLibraryCache.sha1(target))) {
+            return;
+        }
+
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (InputStream in = loader.getResourceAsStream(resource);
+                    OutputStream out = Files.newOutputStream(temporary)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (!expected.equals(NativeLibraryCache.sha1(temporary))) {
+                throw new IOException("The hash of the extracted library " + resource + " does not match the expected hash " + expected);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                // The library may be in use by a concurrent launch (Windows does not permit replacing loaded libraries),
+                // which is fine as long as that launch has put the correct library in place
+                if (!expected.equals(NativeLibraryCache.sha1(target))) {
+                    throw e;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Nullable
+    private static String sha1(@NotNull Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return NativeLibraryCache.sha1(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private static String sha1(@NotNull InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported by this JVM", e);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0x0F, 16));
+            builder.append(Character.forDigit(b & 0x0F, 16));
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    private static byte[] readAll(@NotNull InputStream in) throws IOException {
+        byte[] buffer = new byte[64];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+        }
+        byte[] result = new byte[length];
+        System.arraycopy(buffer, 0, result, 0, length);
+        return result;
+    }
+
+    @Nullable
+    private static String getPlatform() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        if (os.startsWith("windows")) {
+            return "windows";
+        } else if (os.startsWith("mac") || os.startsWith("darwin")) {
+            return "macos";
+        } else if (os.startsWith("linux") || os.startsWith("freebsd") || os.startsWith("sunos") || os.startsWith("unix")) {
+            return "linux";
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String getArchitecture() {
+        String arch = System.getProperty("os.arch", "").toLowerCase(Locale.ROOT);
+        switch (arch) {
+        case "amd64":
+        case "x86_64":
+            return "x64";
+        case "x86":
+        case "i386":
+        case "i686":
+            return "x86";
+        case "aarch64":
+        case "arm64":
+            return "arm64";
+        case "arm":
+        case "armv7l":
+            return "arm32";
+        default:
+            return null;
+        }
+    }
+
+    @NotNull
+    private static String mapLibraryName(@NotNull String platform, @NotNull String name) {
+        switch (platform) {
+        case "windows":
+            return name + ".dll";
+        case "macos":
+            return "lib" + name + ".dylib";
+        default:
+            return "lib" + name + ".so";
+        }
+    }
+}
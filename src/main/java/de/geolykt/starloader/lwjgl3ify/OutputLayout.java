@@ -0,0 +1,227 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes how the entries of the transformed jar are compressed and in which order they are laid out.
+ * Both are configured through system properties:
+ * <ul>
+ * <li>{@code de.geolykt.starloader.lwjgl3ify.outputCompression}: {@code default} (transformed classes are stored,
+ * all other entries keep their compression), {@code stored} (all entries are stored), {@code deflate:<level>} (all
+ * entries are deflated with the given level, if the level is omitted the rawcopy mode copies entries that are already
+ * deflated as they are) or {@code parallel:<level>} (like {@code deflate}, but the entries are compressed concurrently)</li>
+ * <li>{@code de.geolykt.starloader.lwjgl3ify.startupClasses}: path to a file listing classes (one per line, as binary
+ * names, internal names or entry names) that are moved to the front of the jar in the given order, directly after the
+ * manifest. A CDS class list can be used as is.</li>
+ * </ul>
+ * These options are honoured by the streaming and rawcopy output modes.
+ */
+public final class OutputLayout {
+
+    public enum Compression {
+        DEFAULT,
+        STORED,
+        DEFLATE,
+        PARALLEL;
+    }
+
+    private static final OutputLayout INSTANCE = OutputLayout.fromSystemProperties();
+
+    @NotNull
+    private final Compression compression;
+    private final int level;
+    @NotNull
+    private final Map<String, Integer> startupEntries;
+    @NotNull
+    private final String description;
+
+    private OutputLayout(@NotNull Compression compression, int level, @NotNull List<String> startupEntries) {
+        this.compression = compression;
+        this.level = level;
+        Map<String, Integer> ranks = new HashMap<>();
+        for (String entry : startupEntries) {
+            ranks.putIfAbsent(entry, ranks.size());
+        }
+        this.startupEntries = Collections.unmodifiableMap(ranks);
+        this.description = "compression:" + compression + ':' + level + '\n' + "startup-entries:" + startupEntries.size() + ':' + OutputLayout.hash(startupEntries);
+    }
+
+    @NotNull
+    private static String hash(@NotNull List<String> entries) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+        for (String entry : entries) {
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0x0F, 16));
+            builder.append(Character.forDigit(b & 0x0F, 16));
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    public static OutputLayout get() {
+        return INSTANCE;
+    }
+
+    @NotNull
+    private static OutputLayout fromSystemProperties() {
+        String compressionProperty = System.getProperty("de.geolykt.starloader.lwjgl3ify.outputCompression", "default");
+        Compression compression;
+        int level = Deflater.DEFAULT_COMPRESSION;
+        int separator = compressionProperty.indexOf(':');
+        String type = separator == -1 ? compressionProperty : compressionProperty.substring(0, separator);
+        try {
+            compression = Compression.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown output compression: \"" + compressionProperty + "\"");
+        }
+        if (separator != -1) {
+            if (compression != Compression.DEFLATE && compression != Compression.PARALLEL) {
+                throw new IllegalStateException("The output compression \"" + type + "\" does not accept a level");
+            }
+            level = Integer.parseInt(compressionProperty.substring(separator + 1));
+            if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+                throw new IllegalStateException("Invalid compression level: " + level);
+            }
+        }
+
+        List<String> startupEntries = new ArrayList<>();
+        String startupClasses = System.getProperty("de.geolykt.starloader.lwjgl3ify.startupClasses");
+        if (startupClasses != null) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(startupClasses), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String entry = OutputLayout.toEntryName(line.trim());
+                    if (entry != null) {
+                        startupEntries.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new OutputLayout(compression, level, startupEntries);
+    }
+
+    @Nullable
+    private static String toEntryName(@NotNull String line) {
+        if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '@') {
+            // Empty lines, comments and directives of CDS class lists
+            return null;
+        }
+        int space = line.indexOf(' ');
+        if (space != -1) {
+            // CDS class lists may contain additional attributes after the name
+            line = line.substring(0, space);
+        }
+        if (line.endsWith(".class")) {
+            return line;
+        } else if (line.indexOf('/') != -1) {
+            return line + ".class";
+        }
+        return line.replace('.', '/') + ".class";
+    }
+
+    @NotNull
+    public Compression getCompression() {
+        return this.compression;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Checks whether the layout is identical to the layout produced without any configuration.
+     *
+     * @return True if neither compression nor order are changed
+     */
+    public boolean isDefault() {
+        return this.compression == Compression.DEFAULT && this.startupEntries.isEmpty();
+    }
+
+    /**
+     * Obtains a description of the layout, used as part of the {@link LWJGL3Transformer#getRulesFingerprint() fingerprint}
+     * as the layout changes the output of the transformation.
+     *
+     * @return The description
+     */
+    @NotNull
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Sorts the entries of a jar according to this layout. The manifest comes first, followed by the startup entries
+     * in the order they were listed in. All other entries keep their relative order.
+     *
+     * @param entries The entries to sort
+     * @param nameFunction The function obtaining the name of an entry
+     */
+    public <T> void sort(@NotNull List<T> entries, @NotNull Function<T, String> nameFunction) {
+        if (this.startupEntries.isEmpty()) {
+            return;
+        }
+        // List#sort is stable
+        entries.sort(Comparator.comparingInt(entry -> this.rank(nameFunction.apply(entry))));
+    }
+
+    private int rank(@NotNull String name) {
+        if (name.equals("META-INF/") || name.equals("META-INF/MANIFEST.MF")) {
+            return name.length() == 9 ? -2 : -1;
+        }
+        return this.startupEntries.getOrDefault(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Deflates data with the level of this layout, without zlib header or trailer as required by the zip format.
+     *
+     * @param data The data to compress
+     * @return The compressed data
+     */
+    @NotNull
+    public byte[] deflate(@NotNull byte[] data) {
+        Deflater deflater = new Deflater(this.level, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Output mode of {@link LWJGL3Transformer} that memory-maps the source jar and copies the still-compressed
+ * bytes of all entries that are neither removed nor transformed straight into the target jar, keeping
+ * their CRC and sizes. Only entries that were actually transformed are re-encoded, unless another
+ * compression is requested through the {@link OutputLayout}.
+ *
+ * <p>Zip64 archives and multi-disk archives are not supported by this mode.
+ */
+public class RawCopyTransformer {
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH = 20;
+    private static final int DATA_DESCRIPTOR_FLAG = 0x08;
+    private static final int UTF8_FLAG = 0x800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private static final class Entry {
+        private final int centralOffset;
+        private final int centralLength;
+        private final int nameOffset;
+        private final int nameLength;
+        private final String name;
+        private final int dataOffset;
+        private final int localExtraOffset;
+        private final int localExtraLength;
+        private int method;
+        private int flags;
+        private int crc;
+        private int compressedSize;
+        private int uncompressedSize;
+        private final int sourceCrc;
+        private final int sourceSize;
+        @Nullable
+        private byte[] replacement;
+        @Nullable
+        private byte[] encoded;
+
+        private Entry(int centralOffset, int centralLength, int nameOffset, int nameLength, String name, int dataOffset, int localExtraOffset, int localExtraLength, int crc, int size) {
+            this.centralOffset = centralOffset;
+            this.centralLength = centralLength;
+            this.nameOffset = nameOffset;
+            this.nameLength = nameLength;
+            this.name = name;
+            this.dataOffset = dataOffset;
+            this.localExtraOffset = localExtraOffset;
+            this.localExtraLength = localExtraLength;
+            this.crc = crc;
+            this.uncompressedSize = size;
+            this.sourceCrc = crc;
+            this.sourceSize = size;
+        }
+    }
+
+    public static void transform(@NotNull Path source, @NotNull Path target, @Nullable ForkJoinPool pool, @NotNull TransformStatistics statistics, boolean library) {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("Source jar is too large for the rawcopy output mode: " + source);
+            }
+            MappedByteBuffer map;
+            int eocd;
+            List<Entry> entries;
+            try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.READ_ARCHIVE, source.toString())) {
+                map = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                eocd = RawCopyTransformer.findEndOfCentralDirectory(map);
+                statistics.bytesRead(size);
+            }
+            TransformManifest manifest = new TransformManifest();
+            try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.FILTER)) {
+                entries = RawCopyTransformer.readEntries(map, eocd, statistics, manifest, library);
+            }
+
+            List<Entry> transformable = new ArrayList<>();
+            TransformManifest previous = Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.disableIncrementalTransform") ? null : TransformManifest.load(target);
+            try (FileChannel previousTarget = previous == null ? null : FileChannel.open(target, StandardOpenOption.READ)) {
+                for (Entry entry : entries) {
+                    if (!LWJGL3Transformer.isTransformTarget(entry.name)) {
+                        continue;
+                    }
+                    TransformManifest.Record record = previous == null ? null : previous.get(entry.name);
+                    if (record != null && previousTarget != null && record.matches(entry.sourceCrc, entry.sourceSize)) {
+                        if (record.getDecision() == TransformManifest.Decision.PASSTHROUGH) {
+                            statistics.entryReused();
+                            continue;
+                        } else if (record.getDecision() == TransformManifest.Decision.TRANSFORMED) {
+                            entry.replacement = TransformManifest.readOutput(previousTarget, record);
+                            if (entry.replacement != null) {
+                                statistics.entryReused();
+                                continue;
+                            }
+                        }
+                    }
+                    transformable.add(entry);
+                }
+            }
+            if (pool == null) {
+                for (Entry entry : transformable) {
+                    entry.replacement = RawCopyTransformer.transformEntry(map, entry, statistics);
+                }
+            } else {
+                List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(transformable.size());
+                for (Entry entry : transformable) {
+                    tasks.add(pool.submit(() -> RawCopyTransformer.transformEntry(map, entry, statistics)));
+                }
+                for (int i = 0; i < tasks.size(); i++) {
+                    transformable.get(i).replacement = tasks.get(i).join();
+                }
+            }
+
+            OutputLayout layout = OutputLayout.get();
+            layout.sort(entries, entry -> entry.name);
+            ForkJoinPool compressionPool = null;
+            if (layout.getCompression() == OutputLayout.Compression.PARALLEL) {
+                compressionPool = pool == null ? ForkJoinPool.commonPool() : pool;
+            }
+
+            // Write to a temporary file first, the previous output must stay intact until the new output is complete
+            Path temporary = target.resolveSibling(target.getFileName().toString() + ".tmp");
+            try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.WRITE, target.toString())) {
+                try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    RawCopyTransformer.write(map, eocd, entries, out, manifest, layout, compressionPool, statistics);
+                    statistics.bytesWritten(out.size());
+                }
+                try {
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            manifest.store(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int findEndOfCentralDirectory(@NotNull ByteBuffer map) throws ZipException {
+        int lowerBound = Math.max(0, map.limit() - END_OF_CENTRAL_DIRECTORY_LENGTH - 0xFFFF);
+        for (int i = map.limit() - END_OF_CENTRAL_DIRECTORY_LENGTH; i >= lowerBound; i--) {
+            if (map.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+                    && i + END_OF_CENTRAL_DIRECTORY_LENGTH + (map.getShort(i + 20) & 0xFFFF) == map.limit()) {
+                return i;
+            }
+        }
+        throw new ZipException("Unable to find the end of central directory record");
+    }
+
+    @NotNull
+    private static List<Entry> readEntries(@NotNull ByteBuffer map, int eocd, @NotNull TransformStatistics statistics, @NotNull TransformManifest manifest, boolean library) throws ZipException {
+        int locator = eocd - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH;
+        if (locator >= 0 && map.getInt(locator) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+            throw new ZipException("Zip64 archives are not supported by the rawcopy output mode");
+        }
+        // Without a zip64 locator the values are to be taken literally, even if they are at their maximum
+        int count = map.getShort(eocd + 10) & 0xFFFF;
+        long directoryOffset = map.getInt(eocd + 16) & 0xFFFFFFFFL;
+        if (directoryOffset >= eocd) {
+            throw new ZipException("Invalid central directory offset " + directoryOffset);
+        }
+        List<Entry> entries = new ArrayList<>(count);
+        int offset = (int) directoryOffset;
+        for (int i = 0; i < count; i++) {
+            if (map.getInt(offset) != CENTRAL_DIRECTORY_SIGNATURE) {
+                throw new ZipException("Invalid central directory file header at offset " + offset);
+            }
+            int flags = map.getShort(offset + 8) & 0xFFFF;
+            int nameLength = map.getShort(offset + 28) & 0xFFFF;
+            int extraLength = map.getShort(offset + 30) & 0xFFFF;
+            int commentLength = map.getShort(offset + 32) & 0xFFFF;
+            int localOffset = map.getInt(offset + 42);
+            if (localOffset < 0 || map.getInt(localOffset) != LOCAL_FILE_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid local file header at offset " + Integer.toUnsignedString(localOffset));
+            }
+            int localNameLength = map.getShort(localOffset + 26) & 0xFFFF;
+            int localExtraLength = map.getShort(localOffset + 28) & 0xFFFF;
+            byte[] nameBytes = new byte[nameLength];
+            ByteBuffer nameBuffer = map.duplicate();
+            nameBuffer.position(offset + 46);
+            nameBuffer.get(nameBytes);
+            String name = new String(nameBytes, (flags & UTF8_FLAG) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+
+            int centralLength = 46 + nameLength + extraLength + commentLength;
+            int crc = map.getInt(offset + 16);
+            int uncompressedSize = map.getInt(offset + 24);
+            statistics.entryScanned();
+            if (!library && LWJGL3Transformer.isForbidden(name)) {
+                statistics.entryRemoved();
+                manifest.put(name, new TransformManifest.Record(crc, uncompressedSize, TransformManifest.Decision.DROPPED, -1, 0, 0));
+            } else {
+                Entry entry = new Entry(offset, centralLength, offset + 46, nameLength, name,
+                        localOffset + 30 + localNameLength + localExtraLength,
+                        localOffset + 30 + localNameLength, localExtraLength, crc, uncompressedSize);
+                entry.flags = flags & ~DATA_DESCRIPTOR_FLAG;
+                entry.method = map.getShort(offset + 10) & 0xFFFF;
+                entry.compressedSize = map.getInt(offset + 20);
+                if (entry.compressedSize < 0 || entry.uncompressedSize < 0) {
+                    throw new ZipException("Zip64 entries are not supported by the rawcopy output mode: " + name);
+                }
+                entries.add(entry);
+            }
+            offset += centralLength;
+        }
+        return entries;
+    }
+
+    @NotNull
+    private static ByteBuffer slice(@NotNull ByteBuffer map, int offset, int length) {
+        ByteBuffer slice = map.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice();
+    }
+
+    @NotNull
+    static byte[] inflate(@NotNull ByteBuffer map, int offset, int compressedSize, int uncompressedSize, int method) throws IOException {
+        ByteBuffer data = RawCopyTransformer.slice(map, offset, compressedSize);
+        byte[] out = new byte[uncompressedSize];
+        if (method == METHOD_STORED) {
+            data.get(out);
+            return out;
+        } else if (method != METHOD_DEFLATED) {
+            throw new ZipException("Unsupported compression method: " + method);
+        }
+        byte[] compressed = new byte[compressedSize];
+        data.get(compressed);
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < uncompressedSize && !inflater.finished()) {
+                int n = inflater.inflate(out, read, uncompressedSize - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != uncompressedSize) {
+                throw new ZipException("Truncated deflate stream");
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return out;
+    }
+
+    @Nullable
+    private static byte[] transformEntry(@NotNull ByteBuffer map, @NotNull Entry entry, @NotNull TransformStatistics statistics) {
+        byte[] data;
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.DECOMPRESS, entry.name)) {
+            data = RawCopyTransformer.inflate(map, entry.dataOffset, entry.compressedSize, entry.uncompressedSize, entry.method);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return LWJGL3Transformer.transformClassBytes(data, entry.name, statistics);
+    }
+
+    /**
+     * Re-encodes an entry with the compression of the layout. Untransformed entries that already use the requested
+     * compression are copied verbatim. For deflate this only holds if no level was requested, as the level the entry
+     * was compressed with is not known.
+     */
+    private static void encode(@NotNull ByteBuffer map, @NotNull Entry entry, @NotNull OutputLayout layout, @NotNull TransformStatistics statistics) {
+        boolean store = layout.getCompression() == OutputLayout.Compression.STORED;
+        byte[] data = entry.replacement;
+        if (data == null) {
+            if (store ? entry.method == METHOD_STORED : (entry.method == METHOD_DEFLATED && layout.getLevel() == Deflater.DEFAULT_COMPRESSION)) {
+                return;
+            }
+            try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.DECOMPRESS, entry.name)) {
+                data = RawCopyTransformer.inflate(map, entry.dataOffset, entry.compressedSize, entry.uncompressedSize, entry.method);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length);
+            entry.crc = (int) crc.getValue();
+        }
+        try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.COMPRESS, entry.name)) {
+            if (store || data.length == 0) {
+                entry.method = METHOD_STORED;
+                entry.encoded = data;
+            } else {
+                entry.method = METHOD_DEFLATED;
+                entry.encoded = layout.deflate(data);
+            }
+        }
+        entry.compressedSize = entry.encoded.length;
+        entry.uncompressedSize = data.length;
+    }
+
+    /**
+     * Writes the entries to the target jar. If a compression pool is given, the entries are encoded within the pool
+     * while they are written: only a bounded amount of entries is encoded ahead of the entry that is currently written,
+     * and entries are written in order as soon as their encoding completed.
+     */
+    private static void write(@NotNull ByteBuffer map, int eocd, @NotNull List<Entry> entries, @NotNull FileChannel out, @NotNull TransformManifest manifest,
+            @NotNull OutputLayout layout, @Nullable ForkJoinPool compressionPool, @NotNull TransformStatistics statistics) throws IOException {
+        int[] localOffsets = new int[entries.size()];
+        ByteBuffer header = ByteBuffer.allocate(30 + 0xFFFF + 0xFFFF).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        Deque<ForkJoinTask<?>> pending = new ArrayDeque<>();
+        int window = compressionPool == null ? 0 : compressionPool.getParallelism() * 4;
+        int submitted = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (compressionPool != null) {
+                while (submitted < entries.size() && submitted <= i + window) {
+                    Entry next = entries.get(submitted++);
+                    pending.add(compressionPool.submit(() -> RawCopyTransformer.encode(map, next, layout, statistics)));
+                }
+                pending.remove().join();
+            } else if (layout.getCompression() == OutputLayout.Compression.STORED || layout.getCompression() == OutputLayout.Compression.DEFLATE) {
+                RawCopyTransformer.encode(map, entry, layout, statistics);
+            }
+            ByteBuffer data;
+            byte[] replacement = entry.replacement;
+            byte[] encoded = entry.encoded;
+            if (encoded != null) {
+                data = ByteBuffer.wrap(encoded);
+                // The encoded data is no longer needed once written
+                entry.encoded = null;
+            } else if (replacement != null) {
+                CRC32 crc = new CRC32();
+                crc.update(replacement, 0, replacement.length);
+                entry.method = METHOD_STORED;
+                entry.crc = (int) crc.getValue();
+                entry.compressedSize = replacement.length;
+                entry.uncompressedSize = replacement.length;
+                data = ByteBuffer.wrap(replacement);
+            } else {
+                data = RawCopyTransformer.slice(map, entry.dataOffset, entry.compressedSize);
+            }
+            if (position > Integer.MAX_VALUE) {
+                throw new ZipException("Output jar is too large for the rawcopy output mode");
+            }
+            localOffsets[i] = (int) position;
+
+            header.clear();
+            header.putInt(LOCAL_FILE_HEADER_SIGNATURE);
+            header.putShort((short) RawCopyTransformer.getVersionNeeded(map, entry));
+            header.putShort((short) entry.flags);
+            header.putShort((short) entry.method);
+            header.putInt(map.getInt(entry.centralOffset + 12)); // modification time and date
+            header.putInt(entry.crc);
+            header.putInt(entry.compressedSize);
+            header.putInt(entry.uncompressedSize);
+            header.putShort((short) entry.nameLength);
+            header.putShort((short) entry.localExtraLength);
+            header.put(RawCopyTransformer.slice(map, entry.nameOffset, entry.nameLength));
+            header.put(RawCopyTransformer.slice(map, entry.localExtraOffset, entry.localExtraLength));
+            header.flip();
+            position += RawCopyTransformer.writeFully(out, header);
+            // Only stored output can be reused by later transformations
+            manifest.put(entry.name, new TransformManifest.Record(entry.sourceCrc, entry.sourceSize,
+                    replacement != null ? TransformManifest.Decision.TRANSFORMED : TransformManifest.Decision.PASSTHROUGH,
+                    entry.method == METHOD_STORED ? position : -1, entry.compressedSize, entry.crc));
+            position += RawCopyTransformer.writeFully(out, data);
+        }
+
+        long directoryStart = position;
+        ByteArrayOutputStream directory = new ByteArrayOutputStream(entries.size() * 64);
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            ByteBuffer record = ByteBuffer.allocate(entry.centralLength).order(ByteOrder.LITTLE_ENDIAN);
+            record.put(RawCopyTransformer.slice(map, entry.centralOffset, entry.centralLength));
+            record.putShort(6, (short) RawCopyTransformer.getVersionNeeded(map, entry));
+            record.putShort(8, (short) entry.flags);
+            record.putShort(10, (short) entry.method);
+            record.putInt(16, entry.crc);
+            record.putInt(20, entry.compressedSize);
+            record.putInt(24, entry.uncompressedSize);
+            record.putShort(34, (short) 0); // disk number start
+            record.putInt(42, localOffsets[i]);
+            directory.write(record.array(), 0, record.capacity());
+        }
+        position += RawCopyTransformer.writeFully(out, ByteBuffer.wrap(directory.toByteArray()));
+
+        if (position > 0xFFFFFFFFL || entries.size() > 0xFFFF) {
+            throw new ZipException("Output jar is too large for the rawcopy output mode");
+        }
+        int commentLength = map.getShort(eocd + 20) & 0xFFFF;
+        ByteBuffer end = ByteBuffer.allocate(END_OF_CENTRAL_DIRECTORY_LENGTH + commentLength).order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        end.putShort((short) 0); // number of this disk
+        end.putShort((short) 0); // disk where the central directory starts
+        end.putShort((short) entries.size());
+        end.putShort((short) entries.size());
+        end.putInt((int) (position - directoryStart));
+        end.putInt((int) directoryStart);
+        end.putShort((short) commentLength);
+        end.put(RawCopyTransformer.slice(map, eocd + END_OF_CENTRAL_DIRECTORY_LENGTH, commentLength));
+        end.flip();
+        RawCopyTransformer.writeFully(out, end);
+    }
+
+    private static int getVersionNeeded(@NotNull ByteBuffer map, @NotNull Entry entry) {
+        int version = map.getShort(entry.centralOffset + 6) & 0xFFFF;
+        if (entry.method == METHOD_DEFLATED && version < 20) {
+            // Deflate requires version 2.0, entries that were stored in the source may declare less
+            return 20;
+        }
+        return version;
+    }
+
+    private static int writeFully(@NotNull FileChannel out, @NotNull ByteBuffer buffer) throws IOException {
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return written;
+    }
+}
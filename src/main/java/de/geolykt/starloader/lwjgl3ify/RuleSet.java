@@ -0,0 +1,129 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The declarative rules of the {@link LWJGL3Transformer}: which jar entries to remove and which classes to rename.
+ * The default rules are stored in the {@code rules.txt} resource next to this class; additional rule files
+ * (for example for mods) can be supplied via the {@code de.geolykt.starloader.lwjgl3ify.ruleFiles} system
+ * property as a list of paths separated by {@link File#pathSeparator}.
+ *
+ * <p>Each line of a rule file is either empty, a comment starting with {@code #}, or one of
+ * <ul>
+ * <li>{@code forbid <substring>} - removes all entries whose name contains the substring</li>
+ * <li>{@code map <from> <to>} - renames the class with the internal name {@code from} to {@code to}</li>
+ * </ul>
+ * Rules are compiled once into a {@link SubstringMatcher} so that filtering an entry costs a single pass over its name.
+ */
+public final class RuleSet {
+
+    private final List<String> forbidden;
+    private final Map<String, String> mappings;
+    private final SubstringMatcher forbiddenMatcher;
+
+    private RuleSet(@NotNull List<String> forbidden, @NotNull Map<String, String> mappings) {
+        this.forbidden = Collections.unmodifiableList(forbidden);
+        this.mappings = Collections.unmodifiableMap(mappings);
+        this.forbiddenMatcher = new SubstringMatcher(forbidden);
+    }
+
+    @NotNull
+    public static RuleSet load() {
+        List<String> forbidden = new ArrayList<>();
+        Map<String, String> mappings = new LinkedHashMap<>();
+        try (InputStream in = RuleSet.class.getResourceAsStream("rules.txt")) {
+            if (in == null) {
+                throw new IllegalStateException("The default rules of the LWJGL3 transformer are missing.");
+            }
+            RuleSet.parse(new InputStreamReader(in, StandardCharsets.UTF_8), "rules.txt", forbidden, mappings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String ruleFiles = System.getProperty("de.geolykt.starloader.lwjgl3ify.ruleFiles");
+        if (ruleFiles != null) {
+            for (String file : ruleFiles.split(File.pathSeparator)) {
+                if (file.isEmpty()) {
+                    continue;
+                }
+                Path path = Paths.get(file);
+                try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    RuleSet.parse(reader, file, forbidden, mappings);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return new RuleSet(forbidden, mappings);
+    }
+
+    private static void parse(@NotNull Reader reader, @NotNull String source, @NotNull List<String> forbidden, @NotNull Map<String, String> mappings) throws IOException {
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = br.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts[0].equals("forbid") && parts.length == 2) {
+                forbidden.add(parts[1]);
+            } else if (parts[0].equals("map") && parts.length == 3) {
+                mappings.put(parts[1], parts[2]);
+            } else {
+                throw new IllegalStateException("Malformed rule at " + source + ":" + lineNumber + ": \"" + line + "\"");
+            }
+        }
+    }
+
+    /**
+     * Checks whether an entry is removed by any {@code forbid} rule.
+     *
+     * @param name The name of the entry
+     * @return True if the entry should be removed
+     */
+    public boolean isForbidden(@NotNull String name) {
+        return this.forbiddenMatcher.containsAny(name);
+    }
+
+    @NotNull
+    public Map<String, String> getMappings() {
+        return this.mappings;
+    }
+
+    /**
+     * Obtains a string that changes whenever the rules change.
+     *
+     * @return The fingerprint of the rules
+     */
+    @NotNull
+    public String getFingerprint() {
+        StringBuilder builder = new StringBuilder();
+        for (String forbidden : this.forbidden) {
+            builder.append("forbid:").append(forbidden).append('\n');
+        }
+        for (Map.Entry<String, String> mapping : new TreeMap<>(this.mappings).entrySet()) {
+            builder.append("map:").append(mapping.getKey()).append("->").append(mapping.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Minimal dependency-aware task graph used by {@link LWJGL3ify#main(String[])} to run independent startup steps
+ * concurrently. Each step starts as soon as all of its dependencies completed and fails if any of them failed.
+ * The timing of every step is recorded in the {@link TransformStatistics}.
+ */
+final class StartupTasks implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Step<T> {
+        T run() throws Exception;
+    }
+
+    @NotNull
+    private final TransformStatistics statistics;
+    @NotNull
+    private final ExecutorService executor;
+
+    StartupTasks(@NotNull TransformStatistics statistics) {
+        this.statistics = statistics;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "LWJGL3ify startup #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a step.
+     *
+     * @param name The name of the step, used for reporting
+     * @param step The step
+     * @param dependencies The steps that need to complete before this step may start
+     * @return The future of the step
+     */
+    @NotNull
+    <T> CompletableFuture<T> submit(@NotNull String name, @NotNull Step<T> step, @NotNull CompletableFuture<?>... dependencies) {
+        return CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> this.run(name, step), this.executor);
+    }
+
+    /**
+     * Runs a step on the current thread, recording its timing like the timing of a scheduled step.
+     *
+     * @param name The name of the step, used for reporting
+     * @param step The step
+     * @return The result of the step
+     */
+    <T> T run(@NotNull String name, @NotNull Step<T> step) {
+        long start = System.nanoTime();
+        try {
+            return step.run();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            this.statistics.stepCompleted(name, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Waits for a step to complete, rethrowing the original exception if the step failed.
+     *
+     * @param future The future of the step
+     * @return The result of the step
+     * @throws Throwable The exception thrown by the step or by any of its dependencies
+     */
+    static <T> T await(@NotNull CompletableFuture<T> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Running steps (such as the launcher AppCDS archive generation) may complete in the background
+        this.executor.shutdown();
+    }
+}
@@ -0,0 +1,180 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Alternative to the in-memory {@link software.coley.llzip.format.model.ZipArchive} based transformation
+ * of {@link LWJGL3Transformer}. Entries are read, filtered or transformed and written to the target one
+ * after another so that at most a single class file is held in memory at any given time.
+ *
+ * <p>Unlike the archive mode this relies on the JDK's zip implementation, so it is less tolerant of
+ * malformed archives.
+ *
+ * <p>The {@link OutputLayout} is honoured, however as entries are written one after another compressing them
+ * in parallel is not supported and a regular deflate with the requested level is performed instead.
+ */
+public class StreamingTransformer {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    public static void transform(@NotNull Path source, @NotNull Path target, @NotNull TransformStatistics statistics, boolean library) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        OutputLayout layout = OutputLayout.get();
+        boolean store = layout.getCompression() == OutputLayout.Compression.STORED;
+        try (ZipFile in = new ZipFile(source.toFile());
+                ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE))) {
+            if (layout.getCompression() == OutputLayout.Compression.PARALLEL) {
+                LoggerFactory.getLogger(StreamingTransformer.class).info("The streaming output mode does not support parallel compression, entries are deflated sequentially instead.");
+            }
+            if (layout.getCompression() != OutputLayout.Compression.DEFAULT) {
+                out.setLevel(layout.getLevel());
+            }
+            List<ZipEntry> entries = new ArrayList<>(in.size());
+            Enumeration<? extends ZipEntry> enumeration = in.entries();
+            while (enumeration.hasMoreElements()) {
+                entries.add(enumeration.nextElement());
+            }
+            layout.sort(entries, ZipEntry::getName);
+            for (ZipEntry entry : entries) {
+                String name = entry.getName();
+                statistics.entryScanned();
+                if (!library && LWJGL3Transformer.isForbidden(name)) {
+                    statistics.entryRemoved();
+                    continue;
+                }
+                if (LWJGL3Transformer.isTransformTarget(name) && !entry.isDirectory()) {
+                    byte[] original;
+                    try (TransformStatistics.PhaseTimer timer = statistics.time(TransformStatistics.Phase.DECOMPRESS, name);
+                            InputStream entryIn = in.getInputStream(entry)) {
+                        original = StreamingTransformer.readFully(entryIn, entry.getSize(), buffer);
+                    }
+                    byte[] transformed = LWJGL3Transformer.transformClassBytes(original, name, statistics);
+                    if (store || (transformed != null && layout.getCompression() == OutputLayout.Compression.DEFAULT)) {
+                        StreamingTransformer.writeStored(out, entry, transformed != null ? transformed : original);
+                    } else {
+                        StreamingTransformer.writeCopy(out, entry, new ByteArrayInputStream(transformed != null ? transformed : original), buffer, layout);
+                    }
+                    continue;
+                }
+                if (store && entry.getMethod() != ZipEntry.STORED) {
+                    StreamingTransformer.writeStored(out, in, entry, buffer);
+                    continue;
+                }
+                try (InputStream entryIn = in.getInputStream(entry)) {
+                    StreamingTransformer.writeCopy(out, entry, entryIn, buffer, layout);
+                }
+            }
+            statistics.bytesRead(Files.size(source));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            statistics.bytesWritten(Files.size(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @NotNull
+    private static byte[] readFully(@NotNull InputStream in, long sizeHint, byte[] buffer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint > 0 && sizeHint < Integer.MAX_VALUE ? (int) sizeHint : BUFFER_SIZE);
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @NotNull
+    private static ZipEntry copyMetadata(@NotNull ZipEntry original) {
+        ZipEntry copy = new ZipEntry(original.getName());
+        copy.setTime(original.getTime());
+        if (original.getExtra() != null) {
+            copy.setExtra(original.getExtra());
+        }
+        if (original.getComment() != null) {
+            copy.setComment(original.getComment());
+        }
+        return copy;
+    }
+
+    private static void writeStored(@NotNull ZipOutputStream out, @NotNull ZipEntry original, byte[] data) throws IOException {
+        ZipEntry entry = StreamingTransformer.copyMetadata(original);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+
+    /**
+     * Writes an entry of the source jar as a stored entry without holding it in memory. As the size and CRC of a stored
+     * entry need to be known before its data is written, the entry is read twice: once to compute them and once to copy it.
+     */
+    private static void writeStored(@NotNull ZipOutputStream out, @NotNull ZipFile in, @NotNull ZipEntry original, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        try (InputStream entryIn = in.getInputStream(original)) {
+            int read;
+            while ((read = entryIn.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        ZipEntry entry = StreamingTransformer.copyMetadata(original);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        try (InputStream entryIn = in.getInputStream(original)) {
+            StreamingTransformer.transferTo(entryIn, out, buffer);
+        }
+        out.closeEntry();
+    }
+
+    private static void writeCopy(@NotNull ZipOutputStream out, @NotNull ZipEntry original, @NotNull InputStream in, byte[] buffer, @NotNull OutputLayout layout) throws IOException {
+        ZipEntry entry = StreamingTransformer.copyMetadata(original);
+        boolean keepMethod = layout.getCompression() == OutputLayout.Compression.DEFAULT || layout.getCompression() == OutputLayout.Compression.STORED;
+        if (original.getMethod() == ZipEntry.STORED && keepMethod) {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(original.getSize());
+            entry.setCompressedSize(original.getSize());
+            entry.setCrc(original.getCrc());
+        } else {
+            entry.setMethod(ZipEntry.DEFLATED);
+        }
+        out.putNextEntry(entry);
+        StreamingTransformer.transferTo(in, out, buffer);
+        out.closeEntry();
+    }
+
+    private static void transferTo(@NotNull InputStream in, @NotNull OutputStream out, byte[] buffer) throws IOException {
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Aho-Corasick automaton that checks whether an input contains any of a fixed set of patterns
+ * in a single pass over the input, regardless of the number of patterns.
+ *
+ * <p>The automaton operates on the UTF-8 encoding of the patterns. Strings are matched by encoding
+ * non-ASCII characters on the fly, byte arrays (such as the modified UTF-8 constants of class files)
+ * are matched directly. The latter is only exact for patterns without supplementary or NUL characters,
+ * which is always the case for internal class names and jar entry names.
+ */
+public final class SubstringMatcher {
+
+    private final int[] byteClasses = new int[256];
+    private final int alphabetSize;
+    /**
+     * Transition table of the fully expanded automaton, indexed by {@code state * alphabetSize + byteClass}.
+     */
+    private final int[] transitions;
+    private final boolean[] accepting;
+
+    public SubstringMatcher(@NotNull Collection<String> patterns) {
+        List<byte[]> encoded = new ArrayList<>(patterns.size());
+        int alphabet = 1; // Class 0 is used for all bytes that do not appear in any pattern
+        for (String pattern : patterns) {
+            byte[] bytes = pattern.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            for (byte b : bytes) {
+                if (this.byteClasses[b & 0xFF] == 0) {
+                    this.byteClasses[b & 0xFF] = alphabet++;
+                }
+            }
+        }
+        this.alphabetSize = alphabet;
+
+        // Build the trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Boolean> output = new ArrayList<>();
+        gotoTable.add(SubstringMatcher.newRow(alphabet));
+        output.add(Boolean.FALSE);
+        for (byte[] pattern : encoded) {
+            int state = 0;
+            for (byte b : pattern) {
+                int symbol = this.byteClasses[b & 0xFF];
+                int next = gotoTable.get(state)[symbol];
+                if (next == -1) {
+                    next = gotoTable.size();
+                    gotoTable.get(state)[symbol] = next;
+                    gotoTable.add(SubstringMatcher.newRow(alphabet));
+                    output.add(Boolean.FALSE);
+                }
+                state = next;
+            }
+            output.set(state, Boolean.TRUE);
+        }
+
+        // Compute failure links breadth-first and fold them into a complete transition table
+        int states = gotoTable.size();
+        this.transitions = new int[states * alphabet];
+        this.accepting = new boolean[states];
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabet; symbol++) {
+            int next = gotoTable.get(0)[symbol];
+            if (next == -1) {
+                this.transitions[symbol] = 0;
+            } else {
+                this.transitions[symbol] = next;
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        this.accepting[0] = output.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            this.accepting[state] = output.get(state) || this.accepting[failure[state]];
+            for (int symbol = 0; symbol < alphabet; symbol++) {
+                int next = gotoTable.get(state)[symbol];
+                if (next == -1) {
+                    this.transitions[state * alphabet + symbol] = this.transitions[failure[state] * alphabet + symbol];
+                } else {
+                    this.transitions[state * alphabet + symbol] = next;
+                    failure[next] = this.transitions[failure[state] * alphabet + symbol];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static int[] newRow(int alphabet) {
+        int[] row = new int[alphabet];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private int step(int state, int b) {
+        return this.transitions[state * this.alphabetSize + this.byteClasses[b & 0xFF]];
+    }
+
+    public boolean containsAny(@NotNull CharSequence input) {
+        if (this.accepting[0]) {
+            return true;
+        }
+        int state = 0;
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                state = this.step(state, c);
+            } else if (c < 0x800) {
+                state = this.step(state, 0xC0 | (c >> 6));
+                if (this.accepting[state]) {
+                    return true;
+                }
+                state = this.step(state, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                int codepoint = Character.toCodePoint(c, input.charAt(++i));
+                int[] bytes = {0xF0 | (codepoint >> 18), 0x80 | ((codepoint >> 12) & 0x3F), 0x80 | ((codepoint >> 6) & 0x3F), 0x80 | (codepoint & 0x3F)};
+                for (int b : bytes) {
+                    state = this.step(state, b);
+                    if (this.accepting[state]) {
+                        return true;
+                    }
+                }
+            } else {
+                state = this.step(state, 0xE0 | (c >> 12));
+                if (this.accepting[state]) {
+                    return true;
+                }
+                state = this.step(state, 0x80 | ((c >> 6) & 0x3F));
+                if (this.accepting[state]) {
+                    return true;
+                }
+                state = this.step(state, 0x80 | (c & 0x3F));
+            }
+            if (this.accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean containsAny(byte[] input, int start, int end) {
+        if (this.accepting[0]) {
+            return true;
+        }
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = this.step(state, input[i]);
+            if (this.accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of the output of {@link LWJGL3Transformer#invoke(Path, Path)}.
+ *
+ * <p>The cache key is the SHA-256 hash of the source jar combined with the fingerprint of the transformer's
+ * rules ({@link LWJGL3Transformer#getRulesFingerprint()}). The key is stored in a sidecar file next to the
+ * transformed jar, alongside the size and modification time of the transformed jar so that a replaced or
+ * truncated output is never reused.
+ */
+public class TransformCache {
+
+    private static final String SIDECAR_SUFFIX = ".lwjgl3ify-cache";
+
+    @NotNull
+    public static String computeKey(@NotNull Path source) {
+        return TransformCache.computeKey(source, false);
+    }
+
+    @NotNull
+    private static String computeKey(@NotNull Path source, boolean library) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        digest.update(LWJGL3Transformer.getRulesFingerprint().getBytes(StandardCharsets.UTF_8));
+        if (library) {
+            // Libraries are transformed without the forbid rules
+            digest.update("library".getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0x0F, 16));
+            builder.append(Character.forDigit(b & 0x0F, 16));
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    private static Path getSidecar(@NotNull Path target) {
+        return target.resolveSibling(target.getFileName().toString() + SIDECAR_SUFFIX);
+    }
+
+    public static boolean isUpToDate(@NotNull String key, @NotNull Path target) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(getSidecar(target))) {
+            properties.load(in);
+            return key.equals(properties.getProperty("key"))
+                    && Long.toString(Files.size(target)).equals(properties.getProperty("size"))
+                    && Long.toString(Files.getLastModifiedTime(target).toMillis()).equals(properties.getProperty("modified"));
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            LoggerFactory.getLogger(TransformCache.class).warn("Unable to read transform cache of {}", target, e);
+            return false;
+        }
+    }
+
+    public static void store(@NotNull String key, @NotNull Path target) {
+        Properties properties = new Properties();
+        try {
+            properties.setProperty("key", key);
+            properties.setProperty("size", Long.toString(Files.size(target)));
+            properties.setProperty("modified", Long.toString(Files.getLastModifiedTime(target).toMillis()));
+            try (OutputStream out = Files.newOutputStream(getSidecar(target))) {
+                properties.store(out, "LWJGL3ify transform cache - do not edit");
+            }
+        } catch (IOException e) {
+            // Failing to write the cache only costs us a re-transformation on the next launch
+            LoggerFactory.getLogger(TransformCache.class).warn("Unable to write transform cache of {}", target, e);
+        }
+    }
+
+    public static void invalidate(@NotNull Path target) {
+        try {
+            Files.deleteIfExists(getSidecar(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Transforms the source jar to the target jar unless a previous transformation
+     * of a byte-for-byte identical source jar under the same rules is still present.
+     *
+     * @param source The jar to transform
+     * @param target The location of the transformed jar
+     * @param statistics The statistics to record the performed work in
+     * @return True if the transformed jar was reused, false if it had to be (re-)built.
+     */
+    public static boolean invokeCached(@NotNull Path source, @NotNull Path target, @NotNull TransformStatistics statistics) {
+        return TransformCache.invokeCached(source, target, false, () -> LWJGL3Transformer.invoke(source, target, statistics));
+    }
+
+    /**
+     * Variant of {@link #invokeCached(Path, Path, TransformStatistics)} that transforms the classes in the given pool.
+     *
+     * @param source The jar to transform
+     * @param target The location of the transformed jar
+     * @param pool The pool to transform the classes in, or null to transform them on the current thread
+     * @param statistics The statistics to record the performed work in
+     * @param library Whether the jar is a library (see {@link LWJGL3Transformer#invoke(Path, Path, ForkJoinPool, TransformStatistics, boolean)})
+     * @return True if the transformed jar was reused, false if it had to be (re-)built.
+     */
+    public static boolean invokeCached(@NotNull Path source, @NotNull Path target, @Nullable ForkJoinPool pool, @NotNull TransformStatistics statistics, boolean library) {
+        return TransformCache.invokeCached(source, target, library, () -> LWJGL3Transformer.invoke(source, target, pool, statistics, library));
+    }
+
+    private static boolean invokeCached(@NotNull Path source, @NotNull Path target, boolean library, @NotNull Runnable transformation) {
+        if (Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.disableTransformCache")) {
+            transformation.run();
+            return false;
+        }
+        String key = computeKey(source, library);
+        if (isUpToDate(key, target)) {
+            LoggerFactory.getLogger(TransformCache.class).info("Reusing transformed jar {}", target);
+            return true;
+        }
+        // Invalidate first so that an interrupted transformation is never mistaken for a complete one
+        invalidate(target);
+        transformation.run();
+        store(key, target);
+        return false;
+    }
+}
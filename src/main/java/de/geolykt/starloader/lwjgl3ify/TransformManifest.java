@@ -0,0 +1,210 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sidecar of a transformed jar that records what happened to every entry of the source jar, so that a later
+ * transformation of a slightly changed source jar only needs to transform the entries that actually changed.
+ * For each entry the CRC and size of the source entry, the decision of the transformer and the location of the
+ * output within the transformed jar are recorded.
+ *
+ * <p>The manifest is bound to the rules of the transformer ({@link LWJGL3Transformer#getRulesFingerprint()}) and is
+ * discarded if they change. Reused output is verified against the CRC recorded in the manifest before it is used,
+ * so a transformed jar that was modified or replaced behind our back is never trusted.
+ */
+public final class TransformManifest {
+
+    public enum Decision {
+        DROPPED,
+        PASSTHROUGH,
+        TRANSFORMED;
+    }
+
+    public static final class Record {
+        private final int crc;
+        private final int size;
+        @NotNull
+        private final Decision decision;
+        private final long offset;
+        private final int length;
+        private final int outputCrc;
+
+        public Record(int crc, int size, @NotNull Decision decision, long offset, int length, int outputCrc) {
+            this.crc = crc;
+            this.size = size;
+            this.decision = decision;
+            this.offset = offset;
+            this.length = length;
+            this.outputCrc = outputCrc;
+        }
+
+        @NotNull
+        public Decision getDecision() {
+            return this.decision;
+        }
+
+        /**
+         * Checks whether the record describes a source entry with the given contents.
+         *
+         * @param crc The CRC of the uncompressed source entry
+         * @param size The uncompressed size of the source entry
+         * @return True if the record can be reused for the entry
+         */
+        public boolean matches(int crc, int size) {
+            return this.crc == crc && this.size == size;
+        }
+    }
+
+    private static final String SIDECAR_SUFFIX = ".lwjgl3ify-manifest";
+    private static final String HEADER = "lwjgl3ify-manifest 1";
+
+    private final Map<String, Record> records = new HashMap<>();
+
+    @NotNull
+    private static Path getSidecar(@NotNull Path target) {
+        return target.resolveSibling(target.getFileName().toString() + SIDECAR_SUFFIX);
+    }
+
+    @NotNull
+    private static String getRulesHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest(LWJGL3Transformer.getRulesFingerprint().getBytes(StandardCharsets.UTF_8))) {
+            builder.append(Character.forDigit((b >> 4) & 0x0F, 16));
+            builder.append(Character.forDigit(b & 0x0F, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Loads the manifest of a transformed jar.
+     *
+     * @param target The transformed jar
+     * @return The manifest, or null if there is no usable manifest
+     */
+    @Nullable
+    public static TransformManifest load(@NotNull Path target) {
+        if (!Files.isRegularFile(target)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(getSidecar(target), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine()) || !TransformManifest.getRulesHash().equals(reader.readLine())) {
+                return null;
+            }
+            TransformManifest manifest = new TransformManifest();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 7);
+                if (parts.length != 7) {
+                    return null;
+                }
+                manifest.records.put(parts[6], new Record(Integer.parseUnsignedInt(parts[1], 16), Integer.parseInt(parts[2]),
+                        Decision.valueOf(parts[0]), Long.parseLong(parts[3]), Integer.parseInt(parts[4]), Integer.parseUnsignedInt(parts[5], 16)));
+            }
+            return manifest;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            LoggerFactory.getLogger(TransformManifest.class).warn("Unable to read the transform manifest of {}", target, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    public Record get(@NotNull String name) {
+        return this.records.get(name);
+    }
+
+    public void put(@NotNull String name, @NotNull Record record) {
+        this.records.put(name, record);
+    }
+
+    /**
+     * Reads the output of a transformed entry from the transformed jar the manifest was loaded from.
+     *
+     * @param target The channel of the transformed jar
+     * @param record The record of the entry, whose decision must be {@link Decision#TRANSFORMED}
+     * @return The transformed entry, or null if the transformed jar does not contain the expected output or the output was compressed
+     */
+    @Nullable
+    public static byte[] readOutput(@NotNull FileChannel target, @NotNull Record record) {
+        try {
+            if (record.offset < 0 || record.offset + record.length > target.size()) {
+                return null;
+            }
+            byte[] data = new byte[record.length];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            long position = record.offset;
+            while (buffer.hasRemaining()) {
+                int read = target.read(buffer, position);
+                if (read < 0) {
+                    return null;
+                }
+                position += read;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length);
+            return (int) crc.getValue() == record.outputCrc ? data : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the manifest next to the transformed jar, replacing the previous manifest atomically.
+     *
+     * @param target The transformed jar
+     */
+    public void store(@NotNull Path target) {
+        Path sidecar = getSidecar(target);
+        Path temporary = sidecar.resolveSibling(sidecar.getFileName().toString() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.write(TransformManifest.getRulesHash());
+                writer.newLine();
+                for (Map.Entry<String, Record> entry : this.records.entrySet()) {
+                    Record record = entry.getValue();
+                    writer.write(record.decision.name() + '\t' + Integer.toHexString(record.crc) + '\t' + record.size + '\t'
+                            + record.offset + '\t' + record.length + '\t' + Integer.toHexString(record.outputCrc) + '\t' + entry.getKey());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(temporary, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Failing to write the manifest only costs us a full transformation on the next launch
+            LoggerFactory.getLogger(TransformManifest.class).warn("Unable to write the transform manifest of {}", target, e);
+        }
+    }
+}
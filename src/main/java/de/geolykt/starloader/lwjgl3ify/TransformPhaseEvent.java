@@ -0,0 +1,50 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted for every phase timed by {@link TransformStatistics}.
+ * Must only be referenced if the JVM supports JFR.
+ */
+@Name("de.geolykt.starloader.lwjgl3ify.Phase")
+@Label("LWJGL3ify Phase")
+@Category("LWJGL3ify")
+@Description("A phase of the LWJGL3ify startup or transformation")
+final class TransformPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Subject")
+    @Description("The entry or file the phase operated on, if any")
+    String subject;
+
+    private static final EventType TYPE = EventType.getEventType(TransformPhaseEvent.class);
+
+    @Nullable
+    static Object begin(@NotNull String phase, @Nullable String subject) {
+        if (!TYPE.isEnabled()) {
+            // Do not allocate events while no recording is interested in them
+            return null;
+        }
+        TransformPhaseEvent event = new TransformPhaseEvent();
+        event.phase = phase;
+        event.subject = subject;
+        event.begin();
+        return event;
+    }
+
+    static void end(@NotNull Object event) {
+        TransformPhaseEvent phaseEvent = (TransformPhaseEvent) event;
+        phaseEvent.end();
+        phaseEvent.commit();
+    }
+}
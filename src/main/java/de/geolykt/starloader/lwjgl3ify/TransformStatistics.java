@@ -0,0 +1,196 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the time spent in the individual phases of the startup and the transformation as well as
+ * some counters describing the work performed. Each timed phase is also emitted as a JFR event
+ * if the JVM supports JFR and a recording is active.
+ *
+ * <p>The summary is logged by {@link #report()} if the {@code de.geolykt.starloader.lwjgl3ify.transformReport}
+ * system property is set to true. It includes the names of the classes that could not be transformed, of which at most
+ * {@value #MAX_FAILED_CLASSES} are kept. Instances are thread-safe.
+ */
+public final class TransformStatistics {
+
+    public enum Phase {
+        NATIVES,
+        READ_ARCHIVE,
+        FILTER,
+        DECOMPRESS,
+        TRANSFORM,
+        COMPRESS,
+        WRITE,
+        LIBRARY_SCAN,
+        ADD_URL,
+        FORWARD;
+    }
+
+    /**
+     * Times a single occurrence of a phase. Must be closed once the phase is over.
+     */
+    public final class PhaseTimer implements AutoCloseable {
+        private final Phase phase;
+        private final long start;
+        @Nullable
+        private final Object event;
+
+        private PhaseTimer(@NotNull Phase phase, @Nullable String subject) {
+            this.phase = phase;
+            this.event = JFR_AVAILABLE ? TransformPhaseEvent.begin(phase.name(), subject) : null;
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            TransformStatistics.this.phaseNanos.addAndGet(this.phase.ordinal(), System.nanoTime() - this.start);
+            TransformStatistics.this.phaseCounts.incrementAndGet(this.phase.ordinal());
+            if (this.event != null) {
+                TransformPhaseEvent.end(this.event);
+            }
+        }
+    }
+
+    static final boolean JFR_AVAILABLE = TransformStatistics.isJfrAvailable();
+
+    /**
+     * The maximum amount of names of classes that failed to transform which are kept for the summary.
+     */
+    static final int MAX_FAILED_CLASSES = 64;
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray phaseCounts = new AtomicLongArray(Phase.values().length);
+    private final AtomicLong entriesScanned = new AtomicLong();
+    private final AtomicLong entriesRemoved = new AtomicLong();
+    private final AtomicLong classesTransformed = new AtomicLong();
+    private final AtomicLong entriesReused = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> failedClasses = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> steps = new ConcurrentLinkedQueue<>();
+    private final long created = System.nanoTime();
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, TransformStatistics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @NotNull
+    public PhaseTimer time(@NotNull Phase phase) {
+        return new PhaseTimer(phase, null);
+    }
+
+    @NotNull
+    public PhaseTimer time(@NotNull Phase phase, @Nullable String subject) {
+        return new PhaseTimer(phase, subject);
+    }
+
+    public void entryScanned() {
+        this.entriesScanned.incrementAndGet();
+    }
+
+    public void entryRemoved() {
+        this.entriesRemoved.incrementAndGet();
+    }
+
+    public void entryReused() {
+        this.entriesReused.incrementAndGet();
+    }
+
+    public void classTransformed() {
+        this.classesTransformed.incrementAndGet();
+    }
+
+    public void bytesRead(long amount) {
+        this.bytesRead.addAndGet(amount);
+    }
+
+    public void bytesWritten(long amount) {
+        this.bytesWritten.addAndGet(amount);
+    }
+
+    /**
+     * Records the timing of a startup step. Unlike phases, steps may run concurrently to each other, so they are
+     * reported with their start relative to the creation of the statistics.
+     *
+     * @param name The name of the step
+     * @param start The value of {@link System#nanoTime()} when the step started
+     * @param end The value of {@link System#nanoTime()} when the step ended
+     */
+    public void stepCompleted(@NotNull String name, long start, long end) {
+        this.steps.add(String.format("%s: +%.2f ms, %.2f ms", name, (start - this.created) / 1_000_000D, (end - start) / 1_000_000D));
+    }
+
+    /**
+     * Records a class that could not be transformed. The failure itself is logged where it occurs,
+     * only the name of the class is kept for the summary.
+     *
+     * @param name The name of the class
+     */
+    public void classFailed(@NotNull String name) {
+        if (this.failures.incrementAndGet() <= MAX_FAILED_CLASSES) {
+            this.failedClasses.add(name);
+        }
+    }
+
+    @NotNull
+    String describeFailedClasses() {
+        long failures = this.failures.get();
+        if (failures == 0) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(String.join(", ", this.failedClasses));
+        int listed = this.failedClasses.size();
+        if (failures > listed) {
+            builder.append(" and ").append(failures - listed).append(" more");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Logs the collected statistics if requested via the {@code de.geolykt.starloader.lwjgl3ify.transformReport}
+     * system property and emits them as a JFR event.
+     */
+    public void report() {
+        if (JFR_AVAILABLE) {
+            TransformSummaryEvent.commit(this.entriesScanned.get(), this.entriesRemoved.get(), this.classesTransformed.get(),
+                    this.bytesRead.get(), this.bytesWritten.get(), this.failures.get(), this.describeFailedClasses());
+        }
+        if (!Boolean.getBoolean("de.geolykt.starloader.lwjgl3ify.transformReport")) {
+            return;
+        }
+        Logger logger = LoggerFactory.getLogger(TransformStatistics.class);
+        Map<Phase, String> phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            long count = this.phaseCounts.get(phase.ordinal());
+            if (count != 0) {
+                phases.put(phase, String.format("%.2f ms (%d)", this.phaseNanos.get(phase.ordinal()) / 1_000_000D, count));
+            }
+        }
+        logger.info("LWJGL3ify summary: {} entries scanned, {} removed, {} reused from the previous output, {} classes transformed, {} failed, {} bytes read, {} bytes written. Phases (cumulative time and occurrences): {}",
+                this.entriesScanned.get(), this.entriesRemoved.get(), this.entriesReused.get(), this.classesTransformed.get(), this.failures.get(),
+                this.bytesRead.get(), this.bytesWritten.get(), phases);
+        if (this.failures.get() != 0) {
+            logger.warn("LWJGL3ify was unable to transform {} classes, which are used as is (see the warnings above for the causes): {}",
+                    this.failures.get(), this.describeFailedClasses());
+        }
+        if (!this.steps.isEmpty()) {
+            logger.info("LWJGL3ify startup steps (start and duration): {}. {} ms elapsed in total.", this.steps,
+                    String.format("%.2f", (System.nanoTime() - this.created) / 1_000_000D));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event summarizing a transformation, emitted by {@link TransformStatistics#report()}.
+ * Must only be referenced if the JVM supports JFR.
+ */
+@Name("de.geolykt.starloader.lwjgl3ify.TransformSummary")
+@Label("LWJGL3ify Transform Summary")
+@Category("LWJGL3ify")
+@StackTrace(false)
+final class TransformSummaryEvent extends Event {
+
+    @Label("Entries Scanned")
+    long entriesScanned;
+
+    @Label("Entries Removed")
+    long entriesRemoved;
+
+    @Label("Classes Transformed")
+    long classesTransformed;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    @Label("Failures")
+    long failures;
+
+    @Label("Failed Classes")
+    String failedClasses;
+
+    static void commit(long entriesScanned, long entriesRemoved, long classesTransformed, long bytesRead, long bytesWritten, long failures, String failedClasses) {
+        TransformSummaryEvent event = new TransformSummaryEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.entriesScanned = entriesScanned;
+        event.entriesRemoved = entriesRemoved;
+        event.classesTransformed = classesTransformed;
+        event.bytesRead = bytesRead;
+        event.bytesWritten = bytesWritten;
+        event.failures = failures;
+        event.failedClasses = failedClasses;
+        event.commit();
+    }
+}
@@ -0,0 +1,56 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A class whose constant pool contains every kind of entry that a class file targeting Java 8 may contain,
+ * including the two-slot long and double entries.
+ */
+final class ClassFixture implements Runnable {
+
+    static final long LONG = 0x123456789ABCL;
+    static final double DOUBLE = 1.5E300;
+    static final float FLOAT = 2.5F;
+    static final int INT = 0x12345678;
+    static final String TEXT = "Fixture text";
+    /**
+     * Renamed by the default transformer rules.
+     */
+    static final String APPLICATION = "com/badlogic/gdx/backends/lwjgl/LwjglApplication";
+
+    private long counter;
+
+    @Override
+    public void run() {
+        // Lambdas and method references add invokedynamic, method handle and method type entries
+        Supplier<String> supplier = () -> TEXT + APPLICATION.length() + this.counter;
+        Function<Object, String> function = String::valueOf;
+        Comparable<String> comparable = TEXT::compareTo;
+        this.counter += LONG * System.nanoTime() + (long) (DOUBLE * INT * FLOAT);
+        if (comparable.compareTo(function.apply(supplier.get())) == 0) {
+            this.counter++;
+        }
+    }
+
+    /**
+     * Reads the class file of the fixture.
+     *
+     * @return The class file
+     * @throws IOException If the class file cannot be read
+     */
+    static byte[] bytes() throws IOException {
+        try (InputStream in = ClassFixture.class.getResourceAsStream("ClassFixture.class")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
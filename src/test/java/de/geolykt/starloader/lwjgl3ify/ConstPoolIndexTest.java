@@ -0,0 +1,127 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import me.coley.cafedude.classfile.ClassFile;
+import me.coley.cafedude.classfile.ConstPool;
+import me.coley.cafedude.classfile.constant.ConstPoolEntry;
+import me.coley.cafedude.classfile.constant.CpClass;
+import me.coley.cafedude.classfile.constant.CpDouble;
+import me.coley.cafedude.classfile.constant.CpLong;
+import me.coley.cafedude.classfile.constant.CpMethodRef;
+import me.coley.cafedude.classfile.constant.CpNameType;
+import me.coley.cafedude.classfile.constant.CpUtf8;
+import me.coley.cafedude.io.ClassFileReader;
+import me.coley.cafedude.io.ClassFileWriter;
+
+public class ConstPoolIndexTest {
+
+    private static long pair(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    @Test
+    public void testIndicesMatchPool() throws Exception {
+        ConstPool pool = new ClassFileReader().read(ClassFixture.bytes()).getPool();
+        ConstPoolIndex index = new ConstPoolIndex(pool);
+        int size = pool.size();
+
+        // The first occurrence of an entry is the one the index must report
+        Map<String, Integer> utf8 = new HashMap<>();
+        Map<Integer, Integer> classes = new HashMap<>();
+        Map<Long, Integer> nameTypes = new HashMap<>();
+        Map<Long, Integer> methodRefs = new HashMap<>();
+        boolean wide = false;
+        int cpIndex = 1;
+        for (ConstPoolEntry entry : pool) {
+            int entryIndex = cpIndex;
+            cpIndex += ConstPoolIndex.width(entry);
+            assertSame(entry, pool.get(entryIndex));
+            if (entry instanceof CpUtf8) {
+                utf8.putIfAbsent(((CpUtf8) entry).getText(), entryIndex);
+            } else if (entry instanceof CpClass) {
+                classes.putIfAbsent(((CpClass) entry).getIndex(), entryIndex);
+            } else if (entry instanceof CpNameType) {
+                CpNameType nameType = (CpNameType) entry;
+                nameTypes.putIfAbsent(ConstPoolIndexTest.pair(nameType.getNameIndex(), nameType.getTypeIndex()), entryIndex);
+            } else if (entry instanceof CpMethodRef) {
+                CpMethodRef ref = (CpMethodRef) entry;
+                methodRefs.putIfAbsent(ConstPoolIndexTest.pair(ref.getClassIndex(), ref.getNameTypeIndex()), entryIndex);
+            } else if (entry instanceof CpLong || entry instanceof CpDouble) {
+                wide = true;
+            }
+        }
+        assertTrue(wide, "The fixture does not contain any long or double constants");
+        assertFalse(methodRefs.isEmpty(), "The fixture does not contain any method references");
+
+        for (Map.Entry<String, Integer> entry : utf8.entrySet()) {
+            assertEquals(entry.getValue().intValue(), index.utf8(entry.getKey()), entry.getKey());
+        }
+        for (Map.Entry<Integer, Integer> entry : classes.entrySet()) {
+            assertEquals(entry.getValue().intValue(), index.classRef(entry.getKey()));
+        }
+        for (Map.Entry<Long, Integer> entry : nameTypes.entrySet()) {
+            assertEquals(entry.getValue().intValue(), index.nameType((int) (entry.getKey() >>> 32), entry.getKey().intValue()));
+        }
+        for (Map.Entry<Long, Integer> entry : methodRefs.entrySet()) {
+            assertEquals(entry.getValue().intValue(), index.methodRef((int) (entry.getKey() >>> 32), entry.getKey().intValue()));
+        }
+        // Lookups of existing entries must not grow the pool
+        assertEquals(size, pool.size());
+    }
+
+    @Test
+    public void testAddedEntriesSurviveRoundTrip() throws Exception {
+        ClassFile file = new ClassFileReader().read(ClassFixture.bytes());
+        ConstPool pool = file.getPool();
+        ConstPoolIndex index = new ConstPoolIndex(pool);
+
+        int owner = index.utf8("de/geolykt/starloader/lwjgl3ify/Added");
+        assertEquals(owner, index.utf8("de/geolykt/starloader/lwjgl3ify/Added"));
+        int name = index.utf8("addedMethod");
+        int type = index.utf8("(JD)V");
+        int classRef = index.classRef(owner);
+        int nameType = index.nameType(name, type);
+        int methodRef = index.methodRef(classRef, nameType);
+        assertEquals(methodRef, index.methodRef(classRef, nameType));
+        assertNotEquals(owner, name);
+
+        ConstPool reread = new ClassFileReader().read(new ClassFileWriter().write(file)).getPool();
+        assertEquals("de/geolykt/starloader/lwjgl3ify/Added", reread.getUtf(owner));
+        assertEquals("addedMethod", reread.getUtf(name));
+        assertEquals("(JD)V", reread.getUtf(type));
+        assertEquals(owner, ((CpClass) reread.get(classRef)).getIndex());
+        CpNameType rereadNameType = (CpNameType) reread.get(nameType);
+        assertEquals(name, rereadNameType.getNameIndex());
+        assertEquals(type, rereadNameType.getTypeIndex());
+        CpMethodRef rereadMethodRef = (CpMethodRef) reread.get(methodRef);
+        assertEquals(classRef, rereadMethodRef.getClassIndex());
+        assertEquals(nameType, rereadMethodRef.getNameTypeIndex());
+    }
+
+    @Test
+    public void testSetText() throws Exception {
+        ConstPool pool = new ClassFileReader().read(ClassFixture.bytes()).getPool();
+        ConstPoolIndex index = new ConstPoolIndex(pool);
+        int text = index.utf8(ClassFixture.TEXT);
+        int size = pool.size();
+
+        index.setText(text, (CpUtf8) pool.get(text), "Renamed text");
+        assertEquals(text, index.utf8("Renamed text"));
+        assertEquals(size, pool.size());
+        // The old text no longer exists, so it has to be added anew
+        int added = index.utf8(ClassFixture.TEXT);
+        assertNotEquals(text, added);
+        assertEquals(size + 1, pool.size());
+        assertEquals(ClassFixture.TEXT, pool.getUtf(added));
+    }
+}
@@ -0,0 +1,75 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import me.coley.cafedude.classfile.ConstPool;
+import me.coley.cafedude.classfile.constant.ConstPoolEntry;
+import me.coley.cafedude.classfile.constant.CpDouble;
+import me.coley.cafedude.classfile.constant.CpLong;
+import me.coley.cafedude.classfile.constant.CpUtf8;
+import me.coley.cafedude.io.ClassFileReader;
+
+public class ConstantPoolScannerTest {
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 0 || c >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testFindsEveryUtf8Constant() throws Exception {
+        byte[] bytes = ClassFixture.bytes();
+        ConstPool pool = new ClassFileReader().read(bytes).getPool();
+        boolean wide = false;
+        int scanned = 0;
+        for (ConstPoolEntry entry : pool) {
+            if (entry instanceof CpLong || entry instanceof CpDouble) {
+                wide = true;
+            } else if (entry instanceof CpUtf8) {
+                String text = ((CpUtf8) entry).getText();
+                if (!text.isEmpty() && ConstantPoolScannerTest.isAscii(text)) {
+                    assertTrue(ConstantPoolScanner.referencesAny(bytes, new SubstringMatcher(Collections.singleton(text))), text);
+                    scanned++;
+                }
+            }
+        }
+        assertTrue(wide, "The fixture does not contain any long or double constants");
+        assertTrue(scanned > 10, "Only " + scanned + " constants were checked");
+    }
+
+    @Test
+    public void testScansWholePool() throws Exception {
+        // The scanner reports a match if it fails to walk the pool, so a miss means that every entry was understood
+        byte[] bytes = ClassFixture.bytes();
+        assertFalse(ConstantPoolScanner.referencesAny(bytes, new SubstringMatcher(Collections.singleton("de/geolykt/starloader/lwjgl3ify/Missing"))));
+        assertTrue(ConstantPoolScanner.referencesAny(bytes, new SubstringMatcher(Arrays.asList("de/geolykt/starloader/lwjgl3ify/Missing", "java/util/function/Supplier"))));
+        assertTrue(ConstantPoolScanner.referencesAny(bytes, new SubstringMatcher(Collections.singleton("lwjgl3ify/ClassFixture"))));
+    }
+
+    @Test
+    public void testMalformedClassesAreReported() throws Exception {
+        SubstringMatcher matcher = new SubstringMatcher(Collections.singleton("de/geolykt/starloader/lwjgl3ify/Missing"));
+        byte[] bytes = ClassFixture.bytes();
+        assertTrue(ConstantPoolScanner.referencesAny(new byte[0], matcher));
+        assertTrue(ConstantPoolScanner.referencesAny(Arrays.copyOf(bytes, 32), matcher));
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = 0;
+        assertTrue(ConstantPoolScanner.referencesAny(badMagic, matcher));
+
+        byte[] badTag = bytes.clone();
+        badTag[10] = 2; // Unused constant pool tag
+        assertTrue(ConstantPoolScanner.referencesAny(badTag, matcher));
+    }
+}
@@ -0,0 +1,101 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class DescriptorRemapperTest {
+
+    private static DescriptorRemapper remapper(int cacheLimit) {
+        Map<String, String> mappings = new HashMap<>();
+        mappings.put("a/B", "x/Y");
+        mappings.put("a/B$C", "x/Y$C");
+        mappings.put("a/I", "x/J");
+        // Neither type variables nor the simple names of inner classes may be remapped
+        mappings.put("Inner", "Bad");
+        mappings.put("T", "Bad");
+        return new DescriptorRemapper(mappings, cacheLimit);
+    }
+
+    private static void assertUnchanged(DescriptorRemapper remapper, String descriptor) {
+        assertSame(descriptor, remapper.remap(descriptor), descriptor);
+    }
+
+    @Test
+    public void testDescriptors() {
+        DescriptorRemapper remapper = DescriptorRemapperTest.remapper(1024);
+        assertEquals("Lx/Y;", remapper.remap("La/B;"));
+        assertEquals("[[Lx/Y;", remapper.remap("[[La/B;"));
+        assertEquals("(ILx/Y;[J)Lx/J;", remapper.remap("(ILa/B;[J)La/I;"));
+        assertEquals("()V", remapper.remap("()V"));
+        DescriptorRemapperTest.assertUnchanged(remapper, "(ILjava/lang/String;)V");
+        DescriptorRemapperTest.assertUnchanged(remapper, "La/Bb;");
+        DescriptorRemapperTest.assertUnchanged(remapper, "La/B$D;");
+    }
+
+    @Test
+    public void testInnerClasses() {
+        DescriptorRemapper remapper = DescriptorRemapperTest.remapper(1024);
+        assertEquals("Lx/Y$C;", remapper.remap("La/B$C;"));
+        assertEquals("(Lx/Y$C;Lx/Y;)V", remapper.remap("(La/B$C;La/B;)V"));
+        assertEquals("Lx/Y<TT;>.Inner<Lx/Y;>;", remapper.remap("La/B<TT;>.Inner<La/B;>;"));
+        assertEquals("Lx/Y<Lx/Y;>.Inner;", remapper.remap("La/B<La/B;>.Inner;"));
+        DescriptorRemapperTest.assertUnchanged(remapper, "Ljava/util/Map<TT;>.Inner;");
+    }
+
+    @Test
+    public void testGenericSignatures() {
+        DescriptorRemapper remapper = DescriptorRemapperTest.remapper(1024);
+        assertEquals("Ljava/util/List<Lx/Y;>;", remapper.remap("Ljava/util/List<La/B;>;"));
+        assertEquals("Ljava/util/Map<+Lx/Y;-[Lx/J;>;", remapper.remap("Ljava/util/Map<+La/B;-[La/I;>;"));
+        assertEquals("Ljava/util/List<Ljava/util/List<Lx/Y;>;>;", remapper.remap("Ljava/util/List<Ljava/util/List<La/B;>;>;"));
+        DescriptorRemapperTest.assertUnchanged(remapper, "Ljava/util/List<*>;");
+        DescriptorRemapperTest.assertUnchanged(remapper, "TT;");
+
+        // Class signature with a class and an interface bound
+        assertEquals("<T:Lx/Y;U::Lx/J;>Ljava/lang/Object;Lx/J<TT;>;",
+                remapper.remap("<T:La/B;U::La/I;>Ljava/lang/Object;La/I<TT;>;"));
+        // Method signature with a recursive bound and a thrown exception
+        assertEquals("<T::Ljava/lang/Comparable<-TT;>;>(TT;Ljava/util/List<+Lx/Y;>;)Lx/Y;^Lx/J;",
+                remapper.remap("<T::Ljava/lang/Comparable<-TT;>;>(TT;Ljava/util/List<+La/B;>;)La/B;^La/I;"));
+        // Formal type parameters whose names equal a mapped class
+        assertEquals("<Inner:Lx/Y;>Ljava/lang/Object;", remapper.remap("<Inner:La/B;>Ljava/lang/Object;"));
+    }
+
+    @Test
+    public void testMalformedInput() {
+        DescriptorRemapper remapper = DescriptorRemapperTest.remapper(1024);
+        DescriptorRemapperTest.assertUnchanged(remapper, "");
+        DescriptorRemapperTest.assertUnchanged(remapper, "La/B");
+        DescriptorRemapperTest.assertUnchanged(remapper, "(La/B");
+        DescriptorRemapperTest.assertUnchanged(remapper, "Ljava/util/List<La/B;");
+        DescriptorRemapperTest.assertUnchanged(remapper, "La/B;>");
+        DescriptorRemapperTest.assertUnchanged(remapper, "<T:La/B;");
+        DescriptorRemapperTest.assertUnchanged(remapper, "<TLa/B;>V");
+        DescriptorRemapperTest.assertUnchanged(remapper, "La/B<TT>;");
+        DescriptorRemapperTest.assertUnchanged(remapper, "a/B");
+        DescriptorRemapperTest.assertUnchanged(remapper, "Some text La/B;");
+    }
+
+    @Test
+    public void testCache() {
+        DescriptorRemapper cached = DescriptorRemapperTest.remapper(1);
+        DescriptorRemapper uncached = DescriptorRemapperTest.remapper(0);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("(Lx/Y;)V", cached.remap("(La/B;)V"));
+            assertEquals("(Lx/J;)V", cached.remap("(La/I;)V"));
+            DescriptorRemapperTest.assertUnchanged(cached, "(Ljava/lang/Object;)V");
+            assertEquals("(Lx/Y;)V", uncached.remap("(La/B;)V"));
+            DescriptorRemapperTest.assertUnchanged(uncached, "(Ljava/lang/Object;)V");
+        }
+        // Unchanged descriptors are cached by value, the instance passed in is still returned
+        String descriptor = new String("(Ljava/lang/Object;)V");
+        DescriptorRemapper unchanged = DescriptorRemapperTest.remapper(16);
+        DescriptorRemapperTest.assertUnchanged(unchanged, "(Ljava/lang/Object;)V");
+        DescriptorRemapperTest.assertUnchanged(unchanged, descriptor);
+    }
+}
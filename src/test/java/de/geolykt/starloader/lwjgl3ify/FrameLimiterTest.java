@@ -0,0 +1,51 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+
+public class FrameLimiterTest {
+
+    @Test
+    public void testFirstFrameIsNotDelayed() {
+        FrameLimiter limiter = new FrameLimiter(1);
+        long start = System.nanoTime();
+        limiter.sync();
+        assertTrue(System.nanoTime() - start < 100_000_000L);
+    }
+
+    @Test
+    public void testFramesArePaced() {
+        FrameLimiter limiter = new FrameLimiter(200);
+        limiter.sync();
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limiter.sync();
+        }
+        long elapsed = System.nanoTime() - start;
+        // The deadlines are 5 ms apart, starting with the first invocation
+        assertTrue(elapsed >= 10 * 5_000_000L - 500_000L, "10 frames took " + elapsed + " ns");
+    }
+
+    @Test
+    public void testSlowFramesAreNotCaughtUp() {
+        FrameLimiter limiter = new FrameLimiter(100);
+        limiter.sync();
+        // A frame that takes three times the frame time
+        LockSupport.parkNanos(30_000_000L);
+        limiter.sync();
+        long start = System.nanoTime();
+        limiter.sync();
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= 9_000_000L, "The frame after a slow frame took only " + elapsed + " ns");
+    }
+
+    @Test
+    public void testInvalidFrameRate() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameLimiter(0));
+        assertThrows(IllegalArgumentException.class, () -> new FrameLimiter(-30));
+    }
+}
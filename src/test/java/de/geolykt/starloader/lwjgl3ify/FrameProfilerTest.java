@@ -0,0 +1,155 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+
+public class FrameProfilerTest {
+
+    private static void frame(FrameProfiler profiler, long calls, long drawCalls) {
+        profiler.beginFrame();
+        profiler.endFrame(calls, drawCalls, 0, 0, 0);
+        // Ensure that subsequent frames never start within the same tick of the timer
+        LockSupport.parkNanos(1_000_000L);
+    }
+
+    @Test
+    public void testRingBufferKeepsNewestFrames() {
+        FrameProfiler profiler = new FrameProfiler(3);
+        for (int i = 0; i < 7; i++) {
+            FrameProfilerTest.frame(profiler, i, 0);
+        }
+        assertEquals(7, profiler.getFrameCount());
+        List<FrameProfiler.Frame> frames = profiler.getFrames();
+        assertEquals(3, frames.size());
+        assertEquals(4, frames.get(0).getCalls());
+        assertEquals(5, frames.get(1).getCalls());
+        assertEquals(6, frames.get(2).getCalls());
+    }
+
+    @Test
+    public void testFirstFrameHasNoFrameTime() {
+        FrameProfiler profiler = new FrameProfiler(8);
+        FrameProfilerTest.frame(profiler, 1, 1);
+        assertEquals(0, profiler.getAverageFrameTime());
+        FrameProfilerTest.frame(profiler, 1, 1);
+        List<FrameProfiler.Frame> frames = profiler.getFrames();
+        assertEquals(0, frames.get(0).getFrameTime());
+        assertTrue(frames.get(1).getFrameTime() > 0);
+        assertEquals(frames.get(1).getFrameTime(), profiler.getAverageFrameTime());
+    }
+
+    @Test
+    public void testAverageFrameTimeAfterWrapping() {
+        FrameProfiler profiler = new FrameProfiler(4);
+        for (int i = 0; i < 10; i++) {
+            FrameProfilerTest.frame(profiler, 0, 0);
+        }
+        long total = 0;
+        List<FrameProfiler.Frame> frames = profiler.getFrames();
+        for (FrameProfiler.Frame frame : frames) {
+            assertTrue(frame.getFrameTime() > 0);
+            total += frame.getFrameTime();
+        }
+        // All frames within the buffer have a frame time once it wrapped around
+        assertEquals(total / frames.size(), profiler.getAverageFrameTime());
+    }
+
+    @Test
+    public void testDumpAndReset() throws IOException {
+        FrameProfiler profiler = new FrameProfiler(4);
+        FrameProfilerTest.frame(profiler, 5, 2);
+        FrameProfilerTest.frame(profiler, 7, 3);
+        StringBuilder out = new StringBuilder();
+        profiler.dump(out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("frameTime,renderTime,calls,drawCalls,textureBindings,shaderSwitches,vertices", lines[0]);
+        assertTrue(lines[2].endsWith(",7,3,0,0,0"));
+        profiler.reset();
+        assertEquals(0, profiler.getFrameCount());
+        assertEquals(0, profiler.getFrames().size());
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == double.class) {
+            return 0D;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+
+    @Test
+    public void testCountsGLCallsHeadless() {
+        // Stub GL without any context, every call is a no-op
+        GL30 stub = (GL30) Proxy.newProxyInstance(GL30.class.getClassLoader(), new Class<?>[] {GL30.class},
+                (proxy, method, args) -> FrameProfilerTest.defaultValue(method.getReturnType()));
+        GL30[] current = {stub};
+        Graphics graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] {Graphics.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getGL20":
+            case "getGL30":
+                return current[0];
+            case "setGL20":
+            case "setGL30":
+                current[0] = (GL30) args[0];
+                return null;
+            default:
+                return FrameProfilerTest.defaultValue(method.getReturnType());
+            }
+        });
+
+        FrameProfiler profiler = new FrameProfiler(16);
+        Helper.installFrameProfiler(graphics, profiler);
+        assertSame(profiler, Helper.getFrameProfiler());
+        assertSame(current[0], Gdx.gl);
+
+        profiler.beginFrame();
+        Gdx.gl.glUseProgram(1);
+        Gdx.gl.glBindTexture(GL20.GL_TEXTURE_2D, 2);
+        Gdx.gl.glDrawArrays(GL20.GL_TRIANGLES, 0, 6);
+        Gdx.gl.glDrawElements(GL20.GL_TRIANGLES, 12, GL20.GL_UNSIGNED_SHORT, 0);
+        profiler.endFrame();
+        profiler.beginFrame();
+        Gdx.gl.glDrawArrays(GL20.GL_TRIANGLES, 0, 3);
+        profiler.endFrame();
+
+        List<FrameProfiler.Frame> frames = profiler.getFrames();
+        assertEquals(2, frames.size());
+        FrameProfiler.Frame first = frames.get(0);
+        assertEquals(4, first.getCalls());
+        assertEquals(2, first.getDrawCalls());
+        assertEquals(1, first.getTextureBindings());
+        assertEquals(1, first.getShaderSwitches());
+        assertEquals(18, first.getVertices());
+        FrameProfiler.Frame second = frames.get(1);
+        assertEquals(1, second.getCalls());
+        assertEquals(1, second.getDrawCalls());
+        assertEquals(3, second.getVertices());
+    }
+}
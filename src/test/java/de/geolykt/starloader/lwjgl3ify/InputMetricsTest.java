@@ -0,0 +1,145 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+
+import org.junit.jupiter.api.Test;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+
+import de.geolykt.starloader.lwjgl3ify.InputMetrics.EventType;
+
+public class InputMetricsTest {
+
+    private static long sum(long[] histogram) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static Input input(long eventTime, InputProcessor[] processor) {
+        return (Input) Proxy.newProxyInstance(Input.class.getClassLoader(), new Class<?>[] {Input.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getCurrentEventTime":
+                return eventTime;
+            case "getInputProcessor":
+                return processor[0];
+            case "setInputProcessor":
+                processor[0] = (InputProcessor) args[0];
+                return null;
+            default:
+                return InputMetricsTest.defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static InputProcessor processor(boolean handled) {
+        return (InputProcessor) Proxy.newProxyInstance(InputProcessor.class.getClassLoader(), new Class<?>[] {InputProcessor.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? handled : null);
+    }
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, InputMetrics.bucket(-5));
+        assertEquals(0, InputMetrics.bucket(0));
+        assertEquals(0, InputMetrics.bucket(1));
+        assertEquals(1, InputMetrics.bucket(2));
+        assertEquals(1, InputMetrics.bucket(3));
+        assertEquals(10, InputMetrics.bucket(1024));
+        assertEquals(62, InputMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRecordFillsHistograms() {
+        InputMetrics metrics = new InputMetrics();
+        metrics.record(EventType.KEY_DOWN, 1000, 100, true);
+        metrics.record(EventType.KEY_DOWN, -1, 3000, false);
+        assertEquals(2, metrics.getCount(EventType.KEY_DOWN));
+        assertEquals(1, metrics.getHandledCount(EventType.KEY_DOWN));
+        assertEquals(3100, metrics.getHandlerNanos(EventType.KEY_DOWN));
+        // Unknown queue delays are not accounted for
+        assertEquals(1, metrics.getQueueDelayCount(EventType.KEY_DOWN));
+        assertEquals(1000, metrics.getQueueDelayNanos(EventType.KEY_DOWN));
+
+        long[] handler = metrics.getHandlerHistogram(EventType.KEY_DOWN);
+        assertEquals(InputMetrics.BUCKETS, handler.length);
+        assertEquals(1, handler[InputMetrics.bucket(100)]);
+        assertEquals(1, handler[InputMetrics.bucket(3000)]);
+        assertEquals(2, InputMetricsTest.sum(handler));
+        long[] queueDelay = metrics.getQueueDelayHistogram(EventType.KEY_DOWN);
+        assertEquals(1, queueDelay[InputMetrics.bucket(1000)]);
+        assertEquals(1, InputMetricsTest.sum(queueDelay));
+        assertEquals(0, InputMetricsTest.sum(metrics.getHandlerHistogram(EventType.KEY_UP)));
+
+        metrics.reset();
+        assertEquals(0, metrics.getCount(EventType.KEY_DOWN));
+        assertEquals(0, InputMetricsTest.sum(metrics.getHandlerHistogram(EventType.KEY_DOWN)));
+        assertEquals(0, InputMetricsTest.sum(metrics.getQueueDelayHistogram(EventType.KEY_DOWN)));
+    }
+
+    @Test
+    public void testPercentile() {
+        long[] histogram = new long[InputMetrics.BUCKETS];
+        assertEquals(0, InputMetrics.percentile(histogram, 0.5));
+        histogram[2] = 9;
+        histogram[10] = 1;
+        assertEquals(7, InputMetrics.percentile(histogram, 0.5));
+        assertEquals(7, InputMetrics.percentile(histogram, 0.9));
+        assertEquals(2047, InputMetrics.percentile(histogram, 0.99));
+    }
+
+    @Test
+    public void testQueueDelayOfInstrumentedProcessor() {
+        InputMetrics metrics = new InputMetrics();
+        long queued = System.nanoTime() - 5_000_000L;
+        InstrumentedInputProcessor processor = new InstrumentedInputProcessor(InputMetricsTest.processor(true), InputMetricsTest.input(queued, new InputProcessor[1]), metrics);
+        assertTrue(processor.touchDown(1, 2, 0, 0));
+        assertEquals(1, metrics.getCount(EventType.TOUCH_DOWN));
+        assertEquals(1, metrics.getHandledCount(EventType.TOUCH_DOWN));
+        assertEquals(1, metrics.getQueueDelayCount(EventType.TOUCH_DOWN));
+        assertTrue(metrics.getQueueDelayNanos(EventType.TOUCH_DOWN) >= 5_000_000L);
+        long[] queueDelay = metrics.getQueueDelayHistogram(EventType.TOUCH_DOWN);
+        for (int i = 0; i < InputMetrics.bucket(5_000_000L); i++) {
+            assertEquals(0, queueDelay[i]);
+        }
+        assertEquals(1, InputMetricsTest.sum(queueDelay));
+    }
+
+    @Test
+    public void testUnknownEventTimeHasNoQueueDelay() {
+        InputMetrics metrics = new InputMetrics();
+        InstrumentedInputProcessor processor = new InstrumentedInputProcessor(InputMetricsTest.processor(false), InputMetricsTest.input(0, new InputProcessor[1]), metrics);
+        assertTrue(!processor.keyTyped('a'));
+        assertEquals(1, metrics.getCount(EventType.KEY_TYPED));
+        assertEquals(0, metrics.getHandledCount(EventType.KEY_TYPED));
+        assertEquals(0, metrics.getQueueDelayCount(EventType.KEY_TYPED));
+    }
+
+    @Test
+    public void testHelperDoesNotExposeInstrumentedProcessor() {
+        InputProcessor[] current = new InputProcessor[1];
+        Input input = InputMetricsTest.input(0, current);
+        InputProcessor game = InputMetricsTest.processor(true);
+        current[0] = new InstrumentedInputProcessor(game, input, new InputMetrics());
+        assertSame(game, Helper.getInputProcessor(input));
+        current[0] = game;
+        assertSame(game, Helper.getInputProcessor(input));
+    }
+}
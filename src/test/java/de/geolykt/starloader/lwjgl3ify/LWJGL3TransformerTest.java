@@ -0,0 +1,165 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LWJGL3TransformerTest {
+
+    private static final String OUTPUT_MODE = "de.geolykt.starloader.lwjgl3ify.outputMode";
+    private static final String FIXTURE = "de/geolykt/starloader/lwjgl3ify/ClassFixture.class";
+    private static final String[] FORBIDDEN = {"com/badlogic/gdx/backends/lwjgl/LwjglInput.class", "org/lwjgl/Sys.class"};
+
+    @TempDir
+    Path directory;
+
+    private static void putStored(ZipOutputStream out, String name, byte[] data) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+
+    private static void putDeflated(ZipOutputStream out, String name, byte[] data) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(data);
+        out.closeEntry();
+    }
+
+    private Path createJar() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Line ").append(i).append(" of a compressible resource\n");
+        }
+        Path jar = this.directory.resolve("source.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            LWJGL3TransformerTest.putDeflated(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+            LWJGL3TransformerTest.putStored(out, "assets/", new byte[0]);
+            LWJGL3TransformerTest.putStored(out, "assets/stored.txt", "Stored resource".getBytes(StandardCharsets.UTF_8));
+            LWJGL3TransformerTest.putDeflated(out, "assets/deflated.txt", text.toString().getBytes(StandardCharsets.UTF_8));
+            LWJGL3TransformerTest.putDeflated(out, FIXTURE, ClassFixture.bytes());
+            LWJGL3TransformerTest.putStored(out, "de/geolykt/starloader/lwjgl3ify/Stored.class", ClassFixture.bytes());
+            for (String forbidden : FORBIDDEN) {
+                LWJGL3TransformerTest.putDeflated(out, forbidden, new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+            }
+        }
+        return jar;
+    }
+
+    private static Map<String, byte[]> readJar(Path jar) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> enumeration = zip.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (InputStream in = zip.getInputStream(entry)) {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+                entries.put(entry.getName(), out.toByteArray());
+            }
+        }
+        return entries;
+    }
+
+    private Map<String, byte[]> transform(Path source, String mode, ForkJoinPool pool, boolean library) throws IOException {
+        Path target = this.directory.resolve(mode + (pool == null ? "" : "-parallel") + (library ? "-library" : "") + ".jar");
+        String previousMode = System.getProperty(OUTPUT_MODE);
+        System.setProperty(OUTPUT_MODE, mode);
+        try {
+            LWJGL3Transformer.invoke(source, target, pool, new TransformStatistics(), library);
+        } finally {
+            if (previousMode == null) {
+                System.clearProperty(OUTPUT_MODE);
+            } else {
+                System.setProperty(OUTPUT_MODE, previousMode);
+            }
+        }
+        return LWJGL3TransformerTest.readJar(target);
+    }
+
+    private static void assertSameEntries(Map<String, byte[]> expected, Map<String, byte[]> actual, String mode) {
+        assertEquals(expected.keySet(), actual.keySet(), mode);
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), mode + ": " + entry.getKey());
+        }
+    }
+
+    @Test
+    public void testOutputModesProduceSameEntries() throws IOException {
+        Path source = this.createJar();
+        Map<String, byte[]> original = LWJGL3TransformerTest.readJar(source);
+        Map<String, byte[]> archive = this.transform(source, "archive", null, false);
+
+        for (String forbidden : FORBIDDEN) {
+            assertFalse(archive.containsKey(forbidden), forbidden);
+        }
+        for (String name : Arrays.asList("META-INF/MANIFEST.MF", "assets/", "assets/stored.txt", "assets/deflated.txt")) {
+            assertArrayEquals(original.get(name), archive.get(name), name);
+        }
+        byte[] transformed = archive.get(FIXTURE);
+        assertNotNull(transformed);
+        assertFalse(Arrays.equals(original.get(FIXTURE), transformed));
+        assertTrue(ConstantPoolScanner.referencesAny(transformed, new SubstringMatcher(Collections.singleton("de/geolykt/starloader/lwjgl3ify/Lwjgl3ifyApplication"))));
+        assertFalse(ConstantPoolScanner.referencesAny(transformed, new SubstringMatcher(Collections.singleton("com/badlogic/gdx/backends/lwjgl/"))));
+        assertArrayEquals(transformed, archive.get("de/geolykt/starloader/lwjgl3ify/Stored.class"));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            LWJGL3TransformerTest.assertSameEntries(archive, this.transform(source, "archive", pool, false), "parallel archive");
+            LWJGL3TransformerTest.assertSameEntries(archive, this.transform(source, "streaming", null, false), "streaming");
+            LWJGL3TransformerTest.assertSameEntries(archive, this.transform(source, "rawcopy", null, false), "rawcopy");
+            LWJGL3TransformerTest.assertSameEntries(archive, this.transform(source, "rawcopy", pool, false), "parallel rawcopy");
+            // The second run reuses the entries of the previous output
+            LWJGL3TransformerTest.assertSameEntries(archive, this.transform(source, "rawcopy", pool, false), "incremental rawcopy");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testLibrariesKeepForbiddenEntries() throws IOException {
+        Path source = this.createJar();
+        Map<String, byte[]> original = LWJGL3TransformerTest.readJar(source);
+        for (String mode : Arrays.asList("archive", "streaming", "rawcopy")) {
+            Map<String, byte[]> library = this.transform(source, mode, null, true);
+            assertEquals(original.keySet(), library.keySet(), mode);
+            for (String forbidden : FORBIDDEN) {
+                assertArrayEquals(original.get(forbidden), library.get(forbidden), mode + ": " + forbidden);
+            }
+            assertFalse(Arrays.equals(original.get(FIXTURE), library.get(FIXTURE)), mode);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+
+public class Lwjgl3ifyApplicationTest {
+
+    private static class CountingListener implements ApplicationListener {
+        int created;
+        int rendered;
+        int disposed;
+
+        @Override
+        public void create() {
+            this.created++;
+        }
+
+        @Override
+        public void resize(int width, int height) {
+        }
+
+        @Override
+        public void render() {
+            this.rendered++;
+        }
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void resume() {
+        }
+
+        @Override
+        public void dispose() {
+            this.disposed++;
+        }
+    }
+
+    @Test
+    public void testListenerIsNotWrappedWithoutCap() {
+        CountingListener listener = new CountingListener();
+        assertSame(listener, Lwjgl3ifyApplication.wrap(listener, new Lwjgl3ApplicationConfiguration(), null));
+    }
+
+    @Test
+    public void testRenderIsPaced() {
+        Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
+        Helper.setVSyncEnabled(config, false);
+        Helper.setForegroundFPS(config, 100);
+        CountingListener listener = new CountingListener();
+        ApplicationListener wrapper = Lwjgl3ifyApplication.wrap(listener, config, null);
+        assertTrue(wrapper instanceof Lwjgl3ifyApplication.WrappingListener);
+
+        wrapper.create();
+        assertEquals(1, listener.created);
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            wrapper.render();
+        }
+        long elapsed = System.nanoTime() - start;
+        wrapper.dispose();
+        assertEquals(6, listener.rendered);
+        assertEquals(1, listener.disposed);
+        // The first frame is not delayed, every following frame is rendered at least 10 ms after the previous one
+        assertTrue(elapsed >= 5 * 9_000_000L, "Frames were not paced: " + elapsed + " ns for 6 frames");
+    }
+
+    @Test
+    public void testRenderIsNotPacedWithoutLimiter() {
+        Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
+        CountingListener listener = new CountingListener();
+        ApplicationListener wrapper = new Lwjgl3ifyApplication.WrappingListener(listener, config, false, null, null);
+        wrapper.create();
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            wrapper.render();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(6, listener.rendered);
+        assertTrue(elapsed < 40_000_000L, "Frames were paced: " + elapsed + " ns for 6 frames");
+    }
+
+    private static InputProcessor processor() {
+        return (InputProcessor) Proxy.newProxyInstance(InputProcessor.class.getClassLoader(), new Class<?>[] {InputProcessor.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? true : null);
+    }
+
+    @Test
+    public void testGameNeverObservesInstrumentedProcessor() {
+        InputProcessor[] current = new InputProcessor[1];
+        Input input = (Input) Proxy.newProxyInstance(Input.class.getClassLoader(), new Class<?>[] {Input.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getInputProcessor":
+                return current[0];
+            case "setInputProcessor":
+                current[0] = (InputProcessor) args[0];
+                return null;
+            case "getCurrentEventTime":
+                return 0L;
+            default:
+                return null;
+            }
+        });
+        InputProcessor game = Lwjgl3ifyApplicationTest.processor();
+        InputProcessor replacement = Lwjgl3ifyApplicationTest.processor();
+        List<InputProcessor> observed = new ArrayList<>();
+        CountingListener listener = new CountingListener() {
+            @Override
+            public void create() {
+                super.create();
+                Gdx.input.setInputProcessor(game);
+            }
+
+            @Override
+            public void render() {
+                super.render();
+                observed.add(Gdx.input.getInputProcessor());
+                if (this.rendered == 3) {
+                    Gdx.input.setInputProcessor(replacement);
+                }
+            }
+
+            @Override
+            public void pause() {
+                observed.add(Gdx.input.getInputProcessor());
+            }
+        };
+        InputMetrics metrics = new InputMetrics();
+        ApplicationListener wrapper = new Lwjgl3ifyApplication.WrappingListener(listener, new Lwjgl3ApplicationConfiguration(), false, null, metrics);
+
+        Gdx.input = input;
+        try {
+            wrapper.create();
+            // Between the callbacks the backend dispatches the events to the instrumented processor
+            assertTrue(current[0] instanceof InstrumentedInputProcessor);
+            InstrumentedInputProcessor instrumented = (InstrumentedInputProcessor) current[0];
+            assertSame(game, instrumented.getDelegate());
+            assertTrue(instrumented.keyDown(1));
+            assertEquals(1, metrics.getCount(InputMetrics.EventType.KEY_DOWN));
+
+            wrapper.render();
+            wrapper.pause();
+            wrapper.render();
+            // The wrapper is reused as long as the game keeps its processor
+            assertSame(instrumented, current[0]);
+            assertEquals(Arrays.asList(game, game, game), observed);
+
+            // A processor set by the game within a callback is instrumented once the callback returns
+            wrapper.render();
+            assertTrue(current[0] instanceof InstrumentedInputProcessor);
+            assertSame(replacement, ((InstrumentedInputProcessor) current[0]).getDelegate());
+            wrapper.render();
+            assertSame(replacement, observed.get(observed.size() - 1));
+
+            wrapper.dispose();
+            assertSame(replacement, current[0]);
+        } finally {
+            Gdx.input = null;
+        }
+        for (InputProcessor processor : observed) {
+            assertFalse(processor instanceof InstrumentedInputProcessor);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package de.geolykt.starloader.lwjgl3ify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TransformStatisticsTest {
+
+    @Test
+    public void testNoFailures() {
+        assertEquals("", new TransformStatistics().describeFailedClasses());
+    }
+
+    @Test
+    public void testFailedClassesAreListed() {
+        TransformStatistics statistics = new TransformStatistics();
+        statistics.classFailed("a/B.class");
+        statistics.classFailed("c/D.class");
+        assertEquals("a/B.class, c/D.class", statistics.describeFailedClasses());
+    }
+
+    @Test
+    public void testFailedClassesAreBounded() {
+        TransformStatistics statistics = new TransformStatistics();
+        for (int i = 0; i < TransformStatistics.MAX_FAILED_CLASSES + 10; i++) {
+            statistics.classFailed("Class" + i + ".class");
+        }
+        String description = statistics.describeFailedClasses();
+        assertTrue(description.startsWith("Class0.class, Class1.class, "), description);
+        assertTrue(description.endsWith("Class" + (TransformStatistics.MAX_FAILED_CLASSES - 1) + ".class and 10 more"), description);
+    }
+}